@@ -1,14 +1,18 @@
 package ru.practicum.shareit.booking;
 
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -20,7 +24,11 @@ public class BookingClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        //gzip exports are passed through as they are instead of being unpacked here
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(HttpClientBuilder.create()
+                                .useSystemProperties()
+                                .disableContentCompression()
+                                .build()))
                         .build()
         );
     }
@@ -29,23 +37,49 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingDtoCreate);
     }
 
+    public ResponseEntity<Object> createBatch(Long userId, List<BookingDtoCreate> bookingDtoCreates) {
+        return post("/batch", userId, bookingDtoCreates);
+    }
+
     public ResponseEntity<Object> updateStatus(Long userId, Long bookingId, Boolean approved) {
         String path = "/" + bookingId + "?approved={approved}";
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch(path, userId, parameters, null);
     }
 
+    public ResponseEntity<Object> updateStatusBulk(Long userId, List<Long> bookingIds, Boolean approved) {
+        Map<String, Object> parameters = Map.of("approved", approved);
+        return patch("/bulk?approved={approved}", userId, parameters, bookingIds);
+    }
+
     public ResponseEntity<Object> getById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, State state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("state", state.name(), "from", from, "size", size);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getSummary(Long userId) {
+        return get("/summary", userId);
+    }
+
+    public ResponseEntity<Object> getSummaryForItems(Long userId) {
+        return get("/owner/summary", userId);
+    }
+
+    public ResponseEntity<Object> getAll(Long userId, State state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("state", state.name(), "from", from, "size", size));
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, after), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAllForItems(Long userId, State state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("state", state.name(), "from", from, "size", size));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, after), userId,
+                parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> export(Long userId, Boolean gzip) {
+        return stream("/export?gzip={gzip}", userId, Map.of("gzip", gzip));
     }
 
-    public ResponseEntity<Object> getAllForItems(Long userId, State state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("state", state.name(), "from", from, "size", size);
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<StreamingResponseBody> exportForItems(Long userId, Boolean gzip) {
+        return stream("/owner/export?gzip={gzip}", userId, Map.of("gzip", gzip));
     }
 }
@@ -6,10 +6,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.ValidationException;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -28,12 +32,48 @@ public class BookingController {
         return bookingClient.create(userId, bookingDtoCreate);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @RequestBody @NotEmpty @Size(max = 500)
+                                              List<BookingDtoCreate> bookingDtoCreates) {
+        return bookingClient.createBatch(userId, bookingDtoCreates);
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> updateStatusBulk(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam Boolean approved,
+                                                   @RequestBody @NotEmpty @Size(max = 500) List<Long> bookingIds) {
+        return bookingClient.updateStatusBulk(userId, bookingIds, approved);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> updateStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                @PathVariable Long bookingId, @RequestParam Boolean approved) {
         return bookingClient.updateStatus(userId, bookingId, approved);
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getSummaryForItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getSummaryForItems(userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(defaultValue = "false") Boolean gzip) {
+        return bookingClient.export(userId, gzip);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportForItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(defaultValue = "false") Boolean gzip) {
+        return bookingClient.exportForItems(userId, gzip);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
         return bookingClient.getById(userId, bookingId);
@@ -43,15 +83,17 @@ public class BookingController {
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @RequestParam(defaultValue = "ALL") State state,
                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return bookingClient.getAll(userId, state, from, size);
+                                         @RequestParam(defaultValue = "10") @Positive Integer size,
+                                         @RequestParam(required = false) String after) {
+        return bookingClient.getAll(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllForItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @RequestParam(defaultValue = "ALL") State state,
                                                  @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                 @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return bookingClient.getAllForItems(userId, state, from, size);
+                                                 @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                 @RequestParam(required = false) String after) {
+        return bookingClient.getAllForItems(userId, state, from, size, after);
     }
 }
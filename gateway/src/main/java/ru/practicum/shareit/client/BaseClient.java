@@ -1,5 +1,8 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -8,9 +11,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
     protected final RestTemplate rest;
@@ -79,6 +85,47 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    //status and headers are passed on right away, the body is copied as it arrives without buffering it
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId, Map<String, Object> parameters) {
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory()
+                    .createRequest(rest.getUriTemplateHandler().expand(path, parameters), HttpMethod.GET);
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            response = request.execute();
+            HttpHeaders headers = new HttpHeaders();
+            if (response.getHeaders().getContentType() != null) {
+                headers.setContentType(response.getHeaders().getContentType());
+            }
+            if (response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                headers.put(HttpHeaders.CONTENT_ENCODING, response.getHeaders().get(HttpHeaders.CONTENT_ENCODING));
+            }
+            ClientHttpResponse serverResponse = response;
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(headers)
+                    .body(out -> {
+                        try (serverResponse; InputStream body = serverResponse.getBody()) {
+                            body.transferTo(out);
+                        }
+                    });
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String after) {
+        if (after == null) {
+            return path;
+        }
+        parameters.put("after", after);
+        return path + "&after={after}";
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
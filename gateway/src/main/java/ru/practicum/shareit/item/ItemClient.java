@@ -11,6 +11,8 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDtoInc;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -31,22 +33,41 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("from", from, "size", size);
-        return get("?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("from", from, "size", size));
+        return get(withCursor("?from={from}&size={size}", parameters, after), userId, parameters);
     }
 
     public ResponseEntity<Object> getById(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of("from", from, "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
     public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> search(Long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("text", text, "from", from, "size", size);
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> search(Long userId, String text, Integer from, Integer size, String after,
+                                         Boolean fuzzy) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("text", text, "from", from, "size", size,
+                "fuzzy", fuzzy));
+        return get(withCursor("/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}", parameters, after),
+                userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(Long userId, String prefix, Integer limit) {
+        Map<String, Object> parameters = Map.of("prefix", prefix, "limit", limit);
+        return get("/suggest?prefix={prefix}&limit={limit}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(Long userId, Long itemId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("from", from, "size", size));
+        return get(withCursor("/" + itemId + "/comments?from={from}&size={size}", parameters, after), userId,
+                parameters);
     }
 
     public ResponseEntity<Object> comment(Long userId, Long itemId, CommentDtoInc commentDtoInc) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -11,10 +12,15 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.Create;
 
 import javax.validation.Valid;
+import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+
 @Controller
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
@@ -32,8 +38,9 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return itemClient.getAll(userId, from, size);
+                                         @RequestParam(defaultValue = "10") @Positive Integer size,
+                                         @RequestParam(required = false) String after) {
+        return itemClient.getAll(userId, from, size, after);
     }
 
     @GetMapping("/{itemId}")
@@ -41,6 +48,17 @@ public class ItemController {
         return itemClient.getById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @PathVariable Long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Неверно введены данные времени начала и/или окончания.");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId,
                                          @RequestBody ItemDto itemDto) {
@@ -51,9 +69,28 @@ public class ItemController {
     public ResponseEntity<Object> search(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @RequestParam String text,
                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                         @RequestParam(defaultValue = "10") @Positive Integer size,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "false") Boolean fuzzy) {
         if (text.isBlank()) return ResponseEntity.ok(List.of());
-        return itemClient.search(userId, text, from, size);
+        return itemClient.search(userId, text, from, size, after, fuzzy);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                          @RequestParam String prefix,
+                                          @RequestParam(defaultValue = "10") @Positive @Max(10) Integer limit) {
+        if (prefix.isBlank()) return ResponseEntity.ok(List.of());
+        return itemClient.suggest(userId, prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @PathVariable Long itemId,
+                                              @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                              @RequestParam(defaultValue = "10") @Positive Integer size,
+                                              @RequestParam(required = false) String after) {
+        return itemClient.getComments(userId, itemId, from, size, after);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -10,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.ItemRequestDtoInc;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -34,9 +35,9 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of("from", from, "size", size);
-        return get("/all/?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("from", from, "size", size));
+        return get(withCursor("/all/?from={from}&size={size}", parameters, after), userId, parameters);
     }
 
     public ResponseEntity<Object> getById(Long userId, Long requestId) {
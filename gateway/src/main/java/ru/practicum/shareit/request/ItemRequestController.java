@@ -33,8 +33,9 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                          @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return itemRequestClient.getAll(userId, from, size);
+                                          @RequestParam(defaultValue = "10") @Positive Integer size,
+                                          @RequestParam(required = false) String after) {
+        return itemRequestClient.getAll(userId, from, size, after);
     }
 
     @GetMapping("/{requestId}")
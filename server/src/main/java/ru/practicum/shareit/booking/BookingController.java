@@ -2,9 +2,17 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingBulkResult;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -15,6 +23,7 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
 
     @PostMapping
     public BookingDtoResponse create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -24,6 +33,23 @@ public class BookingController {
         return response;
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody List<BookingDtoCreate> bookingDtoCreates) {
+        List<BookingBatchResult> response = bookingService.createBatch(userId, bookingDtoCreates);
+        log.info("Пакет бронирований обработан: {} записей.", response.size());
+        return response;
+    }
+
+    @PatchMapping("/bulk")
+    public List<BookingBulkResult> updateStatusBulk(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestParam String approved,
+                                                    @RequestBody List<Long> bookingIds) {
+        List<BookingBulkResult> response = bookingService.updateStatusBulk(userId, bookingIds, approved);
+        log.info("Статусы бронирований обновлены: {} записей.", response.size());
+        return response;
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDtoResponse updateStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                              @PathVariable Long bookingId, @RequestParam String approved) {
@@ -32,6 +58,36 @@ public class BookingController {
         return response;
     }
 
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        BookingSummaryDto response = bookingService.getSummary(userId);
+        log.info("Выведена сводка бронирований пользователя.");
+        return response;
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getSummaryForItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        BookingSummaryDto response = bookingService.getSummaryForItems(userId);
+        log.info("Выведена сводка бронирований вещей пользователя.");
+        return response;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(defaultValue = "false") Boolean gzip) {
+        StreamingResponseBody response = bookingExporter.exportForBooker(userId, gzip);
+        log.info("Начата выгрузка бронирований пользователя.");
+        return exportResponse(response, gzip);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportForItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(defaultValue = "false") Boolean gzip) {
+        StreamingResponseBody response = bookingExporter.exportForOwner(userId, gzip);
+        log.info("Начата выгрузка бронирований вещей пользователя.");
+        return exportResponse(response, gzip);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDtoResponse get(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
         BookingDtoResponse response = bookingService.get(userId, bookingId);
@@ -40,22 +96,34 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDtoResponse> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @RequestParam(defaultValue = "ALL") State state,
-                                           @RequestParam(defaultValue = "0") Integer from,
-                                           @RequestParam(defaultValue = "10") Integer size) {
-        List<BookingDtoResponse> response = bookingService.getAll(userId, state, from, size);
+    public ResponseEntity<List<BookingDtoResponse>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam(defaultValue = "ALL") State state,
+                                                           @RequestParam(defaultValue = "0") Integer from,
+                                                           @RequestParam(defaultValue = "10") Integer size,
+                                                           @RequestParam(required = false) String after) {
+        List<BookingDtoResponse> response = bookingService.getAll(userId, state, from, size, after);
         log.info("Выведен список бронирований пользователя.");
-        return response;
+        return PageCursor.withNextCursor(response, size, booking -> PageCursor.encode(booking.getStart(),
+                booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getAllForItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") State state,
-                                                   @RequestParam(defaultValue = "0") Integer from,
-                                                   @RequestParam(defaultValue = "10") Integer size) {
-        List<BookingDtoResponse> response = bookingService.getAllForItems(userId, state, from, size);
+    public ResponseEntity<List<BookingDtoResponse>> getAllForItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") State state,
+                                                                   @RequestParam(defaultValue = "0") Integer from,
+                                                                   @RequestParam(defaultValue = "10") Integer size,
+                                                                   @RequestParam(required = false) String after) {
+        List<BookingDtoResponse> response = bookingService.getAllForItems(userId, state, from, size, after);
         log.info("Выведен список бронирований пользователя.");
-        return response;
+        return PageCursor.withNextCursor(response, size, booking -> PageCursor.encode(booking.getStart(),
+                booking.getId()));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(StreamingResponseBody body, boolean gzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
     }
 }
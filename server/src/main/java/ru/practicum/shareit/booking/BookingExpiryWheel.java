@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.event.BookingOutbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+//hashed timing wheel: a timer lands in the bucket of its deadline tick, each tick only looks at one bucket
+@Component
+@Slf4j
+public class BookingExpiryWheel {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingSummaryCache bookingSummaryCache;
+    private final BookingOutbox bookingOutbox;
+    private final ItemLocks itemLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int mask;
+    private final long startedAt = System.nanoTime();
+    private long processedTick = -1;
+    private int pending;
+
+    @SuppressWarnings("unchecked")
+    public BookingExpiryWheel(BookingRepository bookingRepository,
+                              BookingIntervalIndex bookingIntervalIndex,
+                              BookingSummaryCache bookingSummaryCache,
+                              BookingOutbox bookingOutbox,
+                              ItemLocks itemLocks,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.booking-expiry.tick:PT1S}") Duration tick,
+                              @Value("${shareit.booking-expiry.wheel-size:4096}") int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Размер колеса должен быть степенью двойки.");
+        }
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.bookingSummaryCache = bookingSummaryCache;
+        this.bookingOutbox = bookingOutbox;
+        this.itemLocks = itemLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.tickNanos = tick.toNanos();
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<BookingInterval> waiting = bookingRepository.findIntervalsByStatus(BookingStatus.WAITING);
+        for (BookingInterval interval: waiting) {
+            schedule(interval.getId(), interval.getItemId(), interval.getStart());
+        }
+        log.info("Таймеры истечения бронирований восстановлены: {}.", waiting.size());
+    }
+
+    //registers after commit so the timer never fires for a booking that was rolled back
+    public void scheduleAfterCommit(Booking booking) {
+        Long bookingId = booking.getId();
+        Long itemId = booking.getItem().getId();
+        LocalDateTime deadline = booking.getStart();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(bookingId, itemId, deadline);
+                }
+            });
+        } else {
+            schedule(bookingId, itemId, deadline);
+        }
+    }
+
+    public synchronized void schedule(Long bookingId, Long itemId, LocalDateTime deadline) {
+        long delay = Duration.between(LocalDateTime.now(), deadline).toNanos();
+        long tick = Math.max(currentTick() + ceilDiv(Math.max(delay, 0), tickNanos), processedTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout(bookingId, itemId, tick));
+        pending++;
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.tick-millis:1000}")
+    public void advance() {
+        List<Timeout> due = collectDue();
+        if (due.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            List<Timeout> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> expire(batch));
+            } catch (RuntimeException e) {
+                log.error("Не удалось завершить истекшие бронирования, повтор на следующем шаге.", e);
+                batch.forEach(this::reschedule);
+            }
+        }
+    }
+
+    private synchronized List<Timeout> collectDue() {
+        long current = currentTick();
+        List<Timeout> due = new ArrayList<>();
+        //after a long pause every bucket is visited once instead of replaying each missed tick
+        long first = Math.max(processedTick + 1, current - mask);
+        for (long tick = first; tick <= current; tick++) {
+            Iterator<Timeout> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+                if (timeout.tick <= current) {
+                    iterator.remove();
+                    due.add(timeout);
+                }
+            }
+        }
+        processedTick = Math.max(processedTick, current);
+        pending -= due.size();
+        return due;
+    }
+
+    private synchronized void reschedule(Timeout timeout) {
+        long tick = processedTick + 1;
+        buckets[(int) (tick & mask)].add(new Timeout(timeout.bookingId, timeout.itemId, tick));
+        pending++;
+    }
+
+    private void expire(List<Timeout> batch) {
+        itemLocks.lockAllUntilCompletion(batch.stream()
+                .map(timeout -> timeout.itemId)
+                .collect(toList()));
+        List<Booking> waiting = bookingRepository.findByIdInAndStatus(batch.stream()
+                .map(timeout -> timeout.bookingId)
+                .collect(toList()), BookingStatus.WAITING);
+        if (waiting.isEmpty()) {
+            return;
+        }
+        bookingRepository.updateStatusByIdInAndStatus(waiting.stream()
+                .map(Booking::getId)
+                .collect(toList()), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        for (Booking booking: waiting) {
+            booking.setStatus(BookingStatus.EXPIRED);
+            bookingOutbox.record(booking, BookingEventType.EXPIRED);
+            bookingSummaryCache.invalidate(booking.getBooker().getId(), booking.getItem().getOwner());
+        }
+        waiting.forEach(booking -> bookingIntervalIndex.removeAfterCommit(booking.getItem().getId(),
+                booking.getId()));
+        log.info("Истек срок подтверждения {} бронирований.", waiting.size());
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startedAt) / tickNanos;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static class Timeout {
+        private final long bookingId;
+        private final long itemId;
+        private final long tick;
+
+        Timeout(long bookingId, long itemId, long tick) {
+            this.bookingId = bookingId;
+            this.itemId = itemId;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.user.UserIdIndex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+//writes a booking history as NDJSON while it is read, so memory doesn't grow with the history
+@Component
+@Slf4j
+public class BookingExporter {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final BookingRepository bookingRepository;
+    private final UserIdIndex userIdIndex;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingExporter(BookingRepository bookingRepository, UserIdIndex userIdIndex, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.userIdIndex = userIdIndex;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportForBooker(Long userId, boolean gzip) {
+        return export(userId, gzip, bookingRepository::streamByBooker);
+    }
+
+    public StreamingResponseBody exportForOwner(Long userId, boolean gzip) {
+        return export(userId, gzip, bookingRepository::streamByOwner);
+    }
+
+    //the user is checked before the response starts, the body itself runs later on an async thread
+    private StreamingResponseBody export(Long userId, boolean gzip,
+                                         Function<Long, Stream<BookingDtoResponse>> query) {
+        if (!userIdIndex.contains(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        return out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            //the cursor only stays open inside a transaction
+            long written = transactionTemplate.execute(status -> {
+                try (Stream<BookingDtoResponse> bookings = query.apply(userId)) {
+                    return write(bookings, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            log.info("Выгружено {} бронирований пользователя {}.", written, userId);
+        };
+    }
+
+    private long write(Stream<BookingDtoResponse> bookings, OutputStream target) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(target);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        for (BookingDtoResponse booking: (Iterable<BookingDtoResponse>) bookings::iterator) {
+            generator.writeObject(booking);
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+}
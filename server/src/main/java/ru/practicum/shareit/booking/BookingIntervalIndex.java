@@ -0,0 +1,216 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<BookingInterval> intervals = bookingRepository.findIntervalsByStatusInAndEndAfter(ACTIVE_STATUSES,
+                LocalDateTime.now());
+        for (BookingInterval interval: intervals) {
+            add(interval);
+        }
+        log.info("Индекс бронирований загружен: {} бронирований, {} вещей.", intervals.size(), timelines.size());
+    }
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline != null && timeline.hasOverlap(start, end);
+    }
+
+    public List<AvailabilitySlotDto> freeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return List.of(new AvailabilitySlotDto(from, to));
+        }
+        return timeline.freeSlots(from, to);
+    }
+
+    public void add(BookingInterval interval) {
+        timelines.compute(interval.getItemId(), (id, timeline) -> {
+            ItemTimeline target = timeline == null ? new ItemTimeline() : timeline;
+            target.add(interval);
+            return target;
+        });
+    }
+
+    public void add(Booking booking) {
+        add(intervalOf(booking));
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        timelines.computeIfPresent(itemId, (id, timeline) -> timeline.remove(bookingId) ? null : timeline);
+    }
+
+    //the index only changes once the booking is committed, so a rolled back transaction leaves it intact
+    public void addAfterCommit(Booking booking) {
+        BookingInterval interval = intervalOf(booking);
+        afterCommit(() -> add(interval));
+    }
+
+    public void removeAfterCommit(Long itemId, Long bookingId) {
+        afterCommit(() -> remove(itemId, bookingId));
+    }
+
+    //finished bookings can't overlap new ones, so they are dropped along with timelines left empty
+    @Scheduled(fixedDelayString = "${shareit.booking-index.prune-millis:3600000}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long itemId: timelines.keySet()) {
+            timelines.computeIfPresent(itemId, (id, timeline) -> timeline.prune(now) ? null : timeline);
+        }
+    }
+
+    private static BookingInterval intervalOf(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class ItemTimeline {
+
+        private static final Comparator<BookingInterval> BY_START = Comparator
+                .comparing(BookingInterval::getStart)
+                .thenComparing(BookingInterval::getId);
+
+        private final NavigableSet<BookingInterval> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, BookingInterval> byId = new HashMap<>();
+        private Duration maxDuration = Duration.ZERO;
+        //create refuses overlaps, so only legacy rows can make a timeline overlap itself
+        private boolean disjoint = true;
+
+        synchronized boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+            for (BookingInterval interval: byStart.subSet(scanFrom(start), true, probe(end), false)) {
+                if (interval.getEnd().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<AvailabilitySlotDto> freeSlots(LocalDateTime from, LocalDateTime to) {
+            List<AvailabilitySlotDto> slots = new ArrayList<>();
+            LocalDateTime cursor = from;
+            //walking in start order, cursor is the end of the busy time covered so far
+            for (BookingInterval interval: byStart.subSet(scanFrom(from), true, probe(to), false)) {
+                if (!interval.getEnd().isAfter(cursor)) {
+                    continue;
+                }
+                if (interval.getStart().isAfter(cursor)) {
+                    slots.add(new AvailabilitySlotDto(cursor, interval.getStart()));
+                }
+                cursor = interval.getEnd();
+                if (!cursor.isBefore(to)) {
+                    return slots;
+                }
+            }
+            slots.add(new AvailabilitySlotDto(cursor, to));
+            return slots;
+        }
+
+        synchronized void add(BookingInterval interval) {
+            BookingInterval previous = byId.put(interval.getId(), interval);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            if (disjoint && (overlaps(byStart.lower(interval), interval)
+                    || overlaps(byStart.higher(interval), interval))) {
+                disjoint = false;
+            }
+            byStart.add(interval);
+            Duration duration = Duration.between(interval.getStart(), interval.getEnd());
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        //returns true once the timeline is empty
+        synchronized boolean remove(Long bookingId) {
+            BookingInterval interval = byId.remove(bookingId);
+            if (interval != null) {
+                byStart.remove(interval);
+            }
+            return byId.isEmpty();
+        }
+
+        synchronized boolean prune(LocalDateTime now) {
+            byStart.removeIf(interval -> {
+                if (interval.getEnd().isAfter(now)) {
+                    return false;
+                }
+                byId.remove(interval.getId());
+                return true;
+            });
+            maxDuration = Duration.ZERO;
+            disjoint = true;
+            BookingInterval previous = null;
+            for (BookingInterval interval: byStart) {
+                Duration duration = Duration.between(interval.getStart(), interval.getEnd());
+                if (duration.compareTo(maxDuration) > 0) {
+                    maxDuration = duration;
+                }
+                if (overlaps(previous, interval)) {
+                    disjoint = false;
+                }
+                if (previous == null || interval.getEnd().isAfter(previous.getEnd())) {
+                    previous = interval;
+                }
+            }
+            return byId.isEmpty();
+        }
+
+        //in a disjoint timeline only the last booking starting before the point can reach over it,
+        //otherwise every booking started within the longest known duration has to be looked at
+        private BookingInterval scanFrom(LocalDateTime point) {
+            if (disjoint) {
+                BookingInterval before = byStart.lower(probe(point));
+                return before != null ? before : probe(point);
+            }
+            return probe(point.minus(maxDuration));
+        }
+
+        private static BookingInterval probe(LocalDateTime start) {
+            return new BookingInterval(Long.MIN_VALUE, null, start, null);
+        }
+
+        private static boolean overlaps(BookingInterval first, BookingInterval second) {
+            return first != null && first.getStart().isBefore(second.getEnd())
+                    && first.getEnd().isAfter(second.getStart());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcRepository {
+
+    private static final String INSERT = "INSERT INTO bookings (res_start, res_end, item, booker, status) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    //the booking row is only produced when the booker exists and the item exists, is available and isn't theirs
+    private static final String BOOKABLE = "SELECT i.id AS item_id, i.item_name, i.item_owner, " +
+            "u.id AS booker_id, u.user_name " +
+            "FROM items i JOIN users u ON u.id = ? " +
+            "WHERE i.id = ? AND i.available = TRUE AND i.item_owner <> u.id";
+    private static final String INSERT_IF_BOOKABLE_POSTGRES = "WITH source AS (" + BOOKABLE + "), " +
+            "inserted AS (INSERT INTO bookings (res_start, res_end, item, booker, status) " +
+            "SELECT ?, ?, item_id, booker_id, ? FROM source RETURNING id) " +
+            "SELECT inserted.id, source.item_name, source.item_owner, source.user_name FROM inserted, source";
+    private static final String INSERT_IF_BOOKABLE = "INSERT INTO bookings " +
+            "(res_start, res_end, item, booker, status) " +
+            "SELECT ?, ?, item_id, booker_id, ? FROM (" + BOOKABLE + ") source";
+    private static final String SELECT_NAMES = "SELECT i.item_name, i.item_owner, u.user_name " +
+            "FROM items i, users u WHERE i.id = ? AND u.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    //one statement on postgres; H2 has no data-modifying CTEs, so it inserts first and then reads the names
+    public Optional<Booking> insertIfBookable(Long userId, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<Booking>>) connection -> {
+            Booking booking = new Booking();
+            booking.setStart(start);
+            booking.setEnd(end);
+            booking.setStatus(BookingStatus.WAITING);
+            booking.setItem(new Item());
+            booking.getItem().setId(itemId);
+            booking.setBooker(new User());
+            booking.getBooker().setId(userId);
+            if (databaseDialect.isPostgres()) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_BOOKABLE_POSTGRES)) {
+                    setBookable(statement, booking, true);
+                    try (ResultSet result = statement.executeQuery()) {
+                        if (!result.next()) {
+                            return Optional.empty();
+                        }
+                        booking.setId(result.getLong(1));
+                        setNames(booking, result.getString(2), result.getLong(3), result.getString(4));
+                    }
+                }
+                return Optional.of(booking);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_BOOKABLE, new String[]{"id"})) {
+                setBookable(statement, booking, false);
+                if (statement.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    keys.next();
+                    booking.setId(keys.getLong(1));
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_NAMES)) {
+                statement.setLong(1, itemId);
+                statement.setLong(2, userId);
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    setNames(booking, result.getString(1), result.getLong(2), result.getString(3));
+                }
+            }
+            return Optional.of(booking);
+        });
+    }
+
+    public List<Booking> insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Booking>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"id"})) {
+                for (Booking booking: bookings) {
+                    statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                    statement.setLong(3, booking.getItem().getId());
+                    statement.setLong(4, booking.getBooker().getId());
+                    statement.setString(5, booking.getStatus().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                for (int i = 0; i < bookings.size(); i++) {
+                    bookings.get(i).setId(ids.get(i));
+                }
+                return bookings;
+            }
+        });
+    }
+
+    //the CTE binds the bookable check before the inserted values, the plain insert binds it after them
+    private void setBookable(PreparedStatement statement, Booking booking, boolean checkFirst) throws SQLException {
+        int bookable = checkFirst ? 1 : 4;
+        int insert = checkFirst ? 3 : 1;
+        statement.setLong(bookable, booking.getBooker().getId());
+        statement.setLong(bookable + 1, booking.getItem().getId());
+        statement.setTimestamp(insert, Timestamp.valueOf(booking.getStart()));
+        statement.setTimestamp(insert + 1, Timestamp.valueOf(booking.getEnd()));
+        statement.setString(insert + 2, booking.getStatus().name());
+    }
+
+    private void setNames(Booking booking, String itemName, long ownerId, String bookerName) {
+        booking.getItem().setName(itemName);
+        booking.getItem().setOwner(ownerId);
+        booking.getBooker().setName(bookerName);
+    }
+}
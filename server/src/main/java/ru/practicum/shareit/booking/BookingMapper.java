@@ -8,9 +8,6 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.item.dto.BookingDtoFotItems;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
 
@@ -50,12 +47,4 @@ public class BookingMapper {
         bookingDtoFotItems.setBookerId(booking.getBooker().getId());
         return bookingDtoFotItems;
     }
-
-    public static List<BookingDtoResponse> mapBookingsIntoResponse(List<Booking> bookings) {
-        List<BookingDtoResponse> responses = new ArrayList<>();
-        for (Booking booking: bookings) {
-            responses.add(mapBookingToBookingDtoResponse(booking));
-        }
-        return responses;
-    }
 }
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingPartitionManager {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    //two-key advisory locks don't share the key space of the single-key item locks
+    private static final int PARTITIONS_LOCK = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${shareit.bookings.partitioning.enabled:false}")
+    private boolean enabled;
+    @Value("${shareit.bookings.partitioning.months-ahead:3}")
+    private int monthsAhead;
+    private boolean active;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (!databaseDialect.isPostgres()) {
+            log.warn("Секционирование бронирований поддерживается только в PostgreSQL, оно отключено.");
+            return;
+        }
+        if (!isPartitioned()) {
+            log.warn("Таблица бронирований не секционирована, выполните db/partition-bookings-postgresql.sql.");
+            return;
+        }
+        active = true;
+        createPartitions();
+    }
+
+    //partitions are created months ahead, so their months are still empty and nothing has to move
+    @Scheduled(cron = "${shareit.bookings.partitioning.cron:0 0 3 * * *}")
+    public void createPartitions() {
+        if (!active) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            //instances starting together create the same partitions one after another
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, 0)", Object.class, PARTITIONS_LOCK);
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(current.plusMonths(i));
+            }
+        });
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = "bookings_" + month.format(PARTITION_SUFFIX);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        //a month that already has rows in the default partition keeps them there
+        Boolean taken = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM bookings_default " +
+                "WHERE res_start >= ? AND res_start < ?)", Boolean.class, from, to);
+        if (Boolean.TRUE.equals(taken)) {
+            log.warn("Секция бронирований {} не создана: бронирования этого месяца уже в секции по умолчанию.", name);
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF bookings " +
+                "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Создана секция бронирований {}.", name);
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject("SELECT CAST(c.relkind AS VARCHAR) FROM pg_class c " +
+                "WHERE c.oid = to_regclass('bookings')", String.class);
+        return "p".equals(kind);
+    }
+}
@@ -1,90 +1,257 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.status = ?1")
+    List<BookingInterval> findIntervalsByStatus(BookingStatus status);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdInAndStatus(List<Long> ids, BookingStatus status);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    @Query(value = "select b.id from Booking b " +
+            "where b.id in ?1 and " +
+            "b.status = ?2")
+    List<Long> findIdsByIdInAndStatus(List<Long> ids, BookingStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update Booking b " +
+            "set b.status = ?3 " +
+            "where b.id in ?1 and " +
+            "b.status = ?2")
+    int updateStatusByIdInAndStatus(List<Long> ids, BookingStatus status, BookingStatus newStatus);
+
     @Query(value = "select b from Booking b " +
             "where b.item.id = ?1 and " +
             "b.booker.id = ?2 and " +
             "b.status = ?3 and " +
-            "b.end < ?4")
+            "b.end < ?4 and " +
+            "b.start < ?4")
     List<Booking> findByItemAndValidBooker(Long itemId, Long userId, BookingStatus status, LocalDateTime time);
 
-    @Query(value = "select b from Booking b " +
+    @Query(value = "select b.status from Booking b " +
+            "where b.id = ?1")
+    BookingStatus findStatusById(Long bookingId);
+
+    @Query(value = "select case when count(b) > 0 then true else false end " +
+            "from Booking b " +
+            "where b.item.id = ?1 and " +
+            "b.id <> ?2 and " +
+            "b.status = ?3 and " +
+            "b.start < ?5 and b.end > ?4")
+    boolean existsOverlapping(Long itemId, Long bookingId, BookingStatus status, LocalDateTime start,
+                              LocalDateTime end);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.status in ?1 and " +
+            "b.end > ?2")
+    List<BookingInterval> findIntervalsByStatusInAndEndAfter(List<BookingStatus> statuses, LocalDateTime time);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
             "where b.item.id in ?1 and " +
-            "b.status = ?2 " +
-            "group by b.id")
-    List<Booking> findByItemInAndStatus(List<Long> itemIds, BookingStatus status, Sort sort);
+            "b.status = ?2 and " +
+            "b.start < ?4 and b.end > ?3")
+    List<BookingInterval> findIntervalsByItemIdInAndStatus(List<Long> itemIds, BookingStatus status,
+                                                           LocalDateTime start, LocalDateTime end);
 
+    //written out instead of derived: the derived form joined items and scanned the whole bookings table
     @Query(value = "select b from Booking b " +
-            "where b.booker.id = ?1 " +
-            "group by b.id " +
+            "where b.item.id = ?1 and " +
+            "b.status = ?2 and " +
+            "b.start <= ?3 " +
             "order by b.start desc")
-    List<Booking> findByBookerOrderByStartDescPageable(Long bookerId, Pageable pageable);
+    List<Booking> findLastByItemIdAndStatus(Long itemId, BookingStatus status, LocalDateTime time,
+                                            Pageable pageable);
 
     @Query(value = "select b from Booking b " +
-            "where b.booker.id = ?1 and " +
-            "?2 between b.start and b.end " +
-            "group by b.id")
-    List<Booking> findCurrentPageable(Long bookerId, LocalDateTime dateTime, Pageable pageable);
+            "where b.item.id = ?1 and " +
+            "b.status = ?2 and " +
+            "b.start > ?3 " +
+            "order by b.start asc")
+    List<Booking> findNextByItemIdAndStatus(Long itemId, BookingStatus status, LocalDateTime time,
+                                            Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "where b.booker.id = ?1 and " +
-            "b.end <= ?2 " +
-            "group by b.id")
-    List<Booking> findPastPageable(Long bookerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 and " +
+            "b.start <= ?2 and (b.start < ?2 or b.id < ?3)")
+    List<BookingDtoResponse> findByBookerOrderByStartDescPageable(Long bookerId, LocalDateTime afterStart,
+                                                                  Long afterId, Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "where b.booker.id = ?1 and " +
-            "b.start >= ?2 " +
-            "group by b.id")
-    List<Booking> findFuturePageable(Long bookerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 and " +
+            "b.start <= ?2 and b.end >= ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findCurrentPageable(Long bookerId, LocalDateTime dateTime, LocalDateTime afterStart,
+                                                 Long afterId, Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "where b.booker.id = ?1 and " +
-            "b.status = ?2 " +
-            "group by b.id " +
-            "order by b.start desc")
-    List<Booking> findByBookerAndStatusOrderByStartDescPageable(Long bookerId, BookingStatus status, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 and " +
+            "b.end <= ?2 and b.start < ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findPastPageable(Long bookerId, LocalDateTime dateTime, LocalDateTime afterStart,
+                                              Long afterId, Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "left join Item i on b.item.id = i.id " +
-            "where i.owner = ?1 " +
-            "group by b.id")
-    List<Booking> findAllForItemsPageable(Long userId, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 and " +
+            "b.start >= ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findFuturePageable(Long bookerId, LocalDateTime dateTime, LocalDateTime afterStart,
+                                                Long afterId, Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "left join Item i on b.item.id = i.id " +
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 and " +
+            "b.status = ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findByBookerAndStatusOrderByStartDescPageable(Long bookerId, BookingStatus status,
+                                                                           LocalDateTime afterStart, Long afterId,
+                                                                           Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
             "where i.owner = ?1 and " +
-            "?2 between b.start and b.end " +
-            "group by b.id")
-    List<Booking> findAllForItemsCurrentPageable(Long userId, LocalDateTime dateTime, Pageable pageable);
+            "b.start <= ?2 and (b.start < ?2 or b.id < ?3)")
+    List<BookingDtoResponse> findAllForItemsPageable(Long userId, LocalDateTime afterStart, Long afterId,
+                                                     Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "left join Item i on b.item.id = i.id " +
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
             "where i.owner = ?1 and " +
-            "b.end < ?2 " +
-            "group by b.id")
-    List<Booking> findAllForItemsPastPageable(Long userId, LocalDateTime dateTime, Pageable pageable);
+            "b.start <= ?2 and b.end >= ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findAllForItemsCurrentPageable(Long userId, LocalDateTime dateTime,
+                                                            LocalDateTime afterStart, Long afterId,
+                                                            Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "left join Item i on b.item.id = i.id " +
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
             "where i.owner = ?1 and " +
-            "b.start > ?2 " +
-            "group by b.id")
-    List<Booking> findAllForItemsFuturePageable(Long userId, LocalDateTime dateTime, Pageable pageable);
+            "b.end < ?2 and b.start < ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findAllForItemsPastPageable(Long userId, LocalDateTime dateTime,
+                                                         LocalDateTime afterStart, Long afterId,
+                                                         Pageable pageable);
 
-    @Query(value = "select b from Booking b " +
-            "left join Item i on b.item.id = i.id " +
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where i.owner = ?1 and " +
+            "b.start > ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findAllForItemsFuturePageable(Long userId, LocalDateTime dateTime,
+                                                           LocalDateTime afterStart, Long afterId,
+                                                           Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
             "where i.owner = ?1 and " +
-            "b.status = ?2 " +
-            "group by b.id")
-    List<Booking> findAllForItemsStatusPageable(Long userId, BookingStatus status, Pageable pageable);
+            "b.status = ?2 and " +
+            "b.start <= ?3 and (b.start < ?3 or b.id < ?4)")
+    List<BookingDtoResponse> findAllForItemsStatusPageable(Long userId, BookingStatus status,
+                                                           LocalDateTime afterStart, Long afterId,
+                                                           Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingSummaryDto(count(b), " +
+            "coalesce(sum(case when b.start <= ?2 and b.end >= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end <= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start >= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ?3 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ?4 then 1 else 0 end), 0)) " +
+            "from Booking b " +
+            "where b.booker.id = ?1")
+    BookingSummaryDto countByStateForBooker(Long bookerId, LocalDateTime dateTime, BookingStatus waiting,
+                                            BookingStatus rejected);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingSummaryDto(count(b), " +
+            "coalesce(sum(case when b.start <= ?2 and b.end >= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ?3 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ?4 then 1 else 0 end), 0)) " +
+            "from Booking b " +
+            "join b.item i " +
+            "where i.owner = ?1")
+    BookingSummaryDto countByStateForOwner(Long userId, LocalDateTime dateTime, BookingStatus waiting,
+                                           BookingStatus rejected);
+
+    //read through a server-side cursor: rows are fetched in chunks instead of loading the whole history
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where u.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    Stream<BookingDtoResponse> streamByBooker(Long bookerId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b " +
+            "join b.booker u " +
+            "join b.item i " +
+            "where i.owner = ?1 " +
+            "order by b.start desc, b.id desc")
+    Stream<BookingDtoResponse> streamByOwner(Long ownerId);
 }
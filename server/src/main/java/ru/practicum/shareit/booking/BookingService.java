@@ -1,24 +1,38 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemBookingPointers;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingBulkResult;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.event.BookingOutbox;
 import ru.practicum.shareit.exceptions.UnknownStatusException;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Service
 @RequiredArgsConstructor
@@ -28,25 +42,94 @@ public class BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final ItemBookingPointers itemBookingPointers;
+    private final ItemLocks itemLocks;
+    private final BookingOutbox bookingOutbox;
+    private final BookingSummaryCache bookingSummaryCache;
+    private final BookingExpiryWheel bookingExpiryWheel;
+    private final UserIdIndex userIdIndex;
 
     @Transactional
     public BookingDtoResponse create(Long userId, BookingDtoCreate bookingDtoCreate) {
+        //the item stays locked until the insert commits, so a concurrent create can't pass the overlap check too
+        if (bookingDtoCreate.getItemId() != null) {
+            itemLocks.lockUntilCompletion(bookingDtoCreate.getItemId());
+        }
+        //fast path: one conditional insert checks the booker, the item and its owner in the database
+        if (bookingDtoCreate.getItemId() != null && isValidBookingDto(bookingDtoCreate)
+                && !bookingIntervalIndex.hasOverlap(bookingDtoCreate.getItemId(), bookingDtoCreate.getStart(),
+                bookingDtoCreate.getEnd())) {
+            Optional<Booking> inserted = bookingJdbcRepository.insertIfBookable(userId, bookingDtoCreate.getItemId(),
+                    bookingDtoCreate.getStart(), bookingDtoCreate.getEnd());
+            if (inserted.isPresent()) {
+                return created(inserted.get());
+            }
+        }
+        //a refused booking is checked again step by step to report the first rule it breaks
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
         Item item = itemRepository.findById(bookingDtoCreate.getItemId())
                 .orElseThrow(() -> new EntityNotFoundException("Неверный ID вещи."));
-        if (item.getAvailable().equals(false)) {
-            throw new ValidationException("На данный момент вещь недоступна для бронирования.");
+        validateBooking(userId, item, bookingDtoCreate);
+        Booking booking = BookingMapper.mapBookingDtoCreateToBooking(bookingDtoCreate, item, user);
+        return created(bookingRepository.save(booking));
+    }
+
+    @Transactional
+    public List<BookingBatchResult> createBatch(Long userId, List<BookingDtoCreate> bookingDtoCreates) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
+        Set<Long> itemIds = bookingDtoCreates.stream()
+                .map(BookingDtoCreate::getItemId)
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        itemLocks.lockAllUntilCompletion(itemIds);
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(toMap(Item::getId, identity()));
+        List<BookingBatchResult> results = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        List<BookingBatchResult> acceptedResults = new ArrayList<>();
+        //the gateway validates a single booking's dates, the entries of a batch are only checked here
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < bookingDtoCreates.size(); i++) {
+            BookingDtoCreate bookingDtoCreate = bookingDtoCreates.get(i);
+            BookingBatchResult result = new BookingBatchResult(i, null, null);
+            results.add(result);
+            try {
+                if (bookingDtoCreate.getItemId() == null || bookingDtoCreate.getStart() == null
+                        || bookingDtoCreate.getEnd() == null) {
+                    throw new ValidationException("Неверно введены данные бронирования.");
+                }
+                if (bookingDtoCreate.getStart().isBefore(now)) {
+                    throw new ValidationException("Время начала бронирования не может быть в прошлом.");
+                }
+                Item item = items.get(bookingDtoCreate.getItemId());
+                if (item == null) {
+                    throw new EntityNotFoundException("Неверный ID вещи.");
+                }
+                validateBooking(userId, item, bookingDtoCreate);
+                if (overlapsAccepted(accepted, bookingDtoCreate)) {
+                    throw new ValidationException("Вещь уже забронирована на указанный период.");
+                }
+                accepted.add(BookingMapper.mapBookingDtoCreateToBooking(bookingDtoCreate, item, user));
+                acceptedResults.add(result);
+            } catch (ValidationException | EntityNotFoundException e) {
+                result.setError(e.getMessage());
+            }
         }
-        if (!isValidBookingDto(bookingDtoCreate)) {
-            throw new ValidationException("Неверно введены данные времени начала и/или окончания.");
+        bookingJdbcRepository.insertAll(accepted);
+        bookingOutbox.recordAll(accepted, BookingEventType.CREATED);
+        for (Booking booking: accepted) {
+            bookingSummaryCache.invalidate(userId, booking.getItem().getOwner());
+            bookingExpiryWheel.scheduleAfterCommit(booking);
         }
-        if (userId.equals(item.getOwner())) {
-            throw new EntityNotFoundException("Невозможно забронировать свою вещь.");
+        for (int i = 0; i < accepted.size(); i++) {
+            bookingIntervalIndex.addAfterCommit(accepted.get(i));
+            acceptedResults.get(i).setBooking(BookingMapper.mapBookingToBookingDtoResponse(accepted.get(i)));
         }
-        Booking booking = BookingMapper.mapBookingDtoCreateToBooking(bookingDtoCreate, item, user);
-        Booking response = bookingRepository.save(booking);
-        return BookingMapper.mapBookingToBookingDtoResponse(response);
+        return results;
     }
 
     @Transactional
@@ -64,14 +147,92 @@ public class BookingService {
         if (!booking.getStatus().equals(BookingStatus.WAITING)) {
             throw new ValidationException("Нельзя изменить статус уже завершенного бронирования.");
         }
+        itemLocks.lockUntilCompletion(item.getId());
+        //the booking may have been decided while this request waited for the lock
+        if (!BookingStatus.WAITING.equals(bookingRepository.findStatusById(bookingId))) {
+            throw new ValidationException("Нельзя изменить статус уже завершенного бронирования.");
+        }
         if (status.equals("true")) {
+            if (bookingRepository.existsOverlapping(item.getId(), bookingId, BookingStatus.APPROVED,
+                    booking.getStart(), booking.getEnd())) {
+                throw new ValidationException("Вещь уже забронирована на указанный период.");
+            }
             booking.setStatus(BookingStatus.APPROVED);
+            itemBookingPointers.refresh(item, LocalDateTime.now());
+            bookingOutbox.record(booking, BookingEventType.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
+            bookingIntervalIndex.removeAfterCommit(item.getId(), booking.getId());
+            bookingOutbox.record(booking, BookingEventType.REJECTED);
         }
+        bookingSummaryCache.invalidate(booking.getBooker().getId(), item.getOwner());
         return BookingMapper.mapBookingToBookingDtoResponse(booking);
     }
 
+    @Transactional
+    public List<BookingBulkResult> updateStatusBulk(Long userId, List<Long> bookingIds, String status) {
+        if (!isValidRequester(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        if (!status.equals("true") && !status.equals("false")) {
+            throw new ValidationException("Неверный статус бронирования.");
+        }
+        boolean approve = status.equals("true");
+        Map<Long, BookingBulkResult> results = new LinkedHashMap<>();
+        bookingIds.forEach(bookingId -> results.putIfAbsent(bookingId, new BookingBulkResult(bookingId, null, null)));
+        //the whole set is loaded with one query, ownership and status are then checked in memory
+        //a null id in the request gets its own error entry instead of reaching the query
+        Set<Long> ids = results.keySet().stream()
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        Map<Long, Booking> bookings = ids.isEmpty() ? Map.of() : bookingRepository.findByIdIn(ids).stream()
+                .collect(toMap(Booking::getId, identity()));
+        List<Booking> waiting = new ArrayList<>();
+        for (BookingBulkResult result: results.values()) {
+            Booking booking = bookings.get(result.getBookingId());
+            if (result.getBookingId() == null) {
+                result.setError("Не указан ID бронирования.");
+            } else if (booking == null) {
+                result.setError("Неверный ID бронирования.");
+            } else if (!booking.getItem().getOwner().equals(userId)) {
+                result.setError("Статус бронирования вещи может менять только ее владелец.");
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                result.setError("Нельзя изменить статус уже завершенного бронирования.");
+            } else {
+                waiting.add(booking);
+            }
+        }
+        if (waiting.isEmpty()) {
+            return new ArrayList<>(results.values());
+        }
+        itemLocks.lockAllUntilCompletion(waiting.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(toList()));
+        //bookings may have been decided while this request waited for the locks
+        Set<Long> stillWaiting = new HashSet<>(bookingRepository.findIdsByIdInAndStatus(bookingIdsOf(waiting),
+                BookingStatus.WAITING));
+        List<BookingInterval> approved = approve ? findApproved(waiting) : new ArrayList<>();
+        List<Booking> decided = new ArrayList<>();
+        for (Booking booking: waiting) {
+            BookingBulkResult result = results.get(booking.getId());
+            if (!stillWaiting.contains(booking.getId())) {
+                result.setError("Нельзя изменить статус уже завершенного бронирования.");
+            } else if (approve && overlapsApproved(approved, booking)) {
+                result.setError("Вещь уже забронирована на указанный период.");
+            } else {
+                if (approve) {
+                    approved.add(new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStart(),
+                            booking.getEnd()));
+                }
+                decided.add(booking);
+            }
+        }
+        if (!decided.isEmpty()) {
+            applyDecision(decided, approve);
+            decided.forEach(booking -> results.get(booking.getId())
+                    .setBooking(BookingMapper.mapBookingToBookingDtoResponse(booking)));
+        }
+        return new ArrayList<>(results.values());
+    }
+
     public BookingDtoResponse get(Long userId, Long bookingId) {
         if (!isValidRequester(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
         Booking booking = bookingRepository.findById(bookingId)
@@ -82,86 +243,186 @@ public class BookingService {
         return BookingMapper.mapBookingToBookingDtoResponse(booking);
     }
 
-    public List<BookingDtoResponse> getAll(Long userId, State state, Integer from,
-                                           Integer size) {
+    public List<BookingDtoResponse> getAll(Long userId, State state, Integer from, Integer size, String after) {
         if (!isValidRequester(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
-        List<Booking> bookings;
-        Pageable pageable;
+        List<BookingDtoResponse> bookings;
+        PageCursor cursor = PageCursor.decode(after);
+        Pageable pageable = PageCursor.pageable(after, from, size, Sort.by(DESC, "start", "id"));
+        LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case ALL:
-                pageable = PageRequest.of(from / size, size);
-                bookings = bookingRepository.findByBookerOrderByStartDescPageable(userId, pageable);
+                bookings = bookingRepository.findByBookerOrderByStartDescPageable(userId, cursor.getTime(),
+                        cursor.getId(), pageable);
                 break;
             case CURRENT:
-                pageable = PageRequest.of(from / size, size,
-                        Sort.by(Sort.Direction.DESC, "start"));
-                bookings = bookingRepository.findCurrentPageable(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findCurrentPageable(userId, now, cursor.getTime(),
+                        cursor.getId(), pageable);
                 break;
             case PAST:
-                pageable = PageRequest.of(from / size, size,
-                        Sort.by(Sort.Direction.DESC, "start"));
-                bookings = bookingRepository.findPastPageable(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findPastPageable(userId, now, cursor.getTime(),
+                        cursor.getId(), pageable);
                 break;
             case FUTURE:
-                pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-                bookings = bookingRepository.findFuturePageable(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findFuturePageable(userId, now, cursor.getTime(),
+                        cursor.getId(), pageable);
                 break;
             case WAITING:
-                pageable = PageRequest.of(from / size, size);
                 bookings = bookingRepository.findByBookerAndStatusOrderByStartDescPageable(userId,
-                        BookingStatus.WAITING, pageable);
+                        BookingStatus.WAITING, cursor.getTime(), cursor.getId(), pageable);
                 break;
             case REJECTED:
-                pageable = PageRequest.of(from / size, size);
                 bookings = bookingRepository.findByBookerAndStatusOrderByStartDescPageable(userId,
-                        BookingStatus.REJECTED, pageable);
+                        BookingStatus.REJECTED, cursor.getTime(), cursor.getId(), pageable);
                 break;
             default:
                 throw new UnknownStatusException("Unknown state: UNSUPPORTED_STATUS");
         }
-        return BookingMapper.mapBookingsIntoResponse(bookings);
+        return bookings;
     }
 
-    public List<BookingDtoResponse> getAllForItems(Long userId, State state, Integer from, Integer size) {
+    public List<BookingDtoResponse> getAllForItems(Long userId, State state, Integer from, Integer size,
+                                                   String after) {
         if (!isValidRequester(userId)) {
             throw new UserNotFoundException("Неверный ID пользователя.");
         }
         if (itemRepository.findByOwnerOrderById(userId).size() == 0) {
             throw new EntityNotFoundException("У данного пользователя нет вещей.");
         }
-        List<Booking> bookings;
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+        List<BookingDtoResponse> bookings;
+        PageCursor cursor = PageCursor.decode(after);
+        Pageable pageable = PageCursor.pageable(after, from, size, Sort.by(DESC, "start", "id"));
+        LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findAllForItemsPageable(userId, pageable);
+                bookings = bookingRepository.findAllForItemsPageable(userId, cursor.getTime(), cursor.getId(),
+                        pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findAllForItemsCurrentPageable(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findAllForItemsCurrentPageable(userId, now,
+                        cursor.getTime(), cursor.getId(), pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findAllForItemsPastPageable(userId, LocalDateTime.now(),pageable);
+                bookings = bookingRepository.findAllForItemsPastPageable(userId, now,
+                        cursor.getTime(), cursor.getId(), pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllForItemsFuturePageable(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findAllForItemsFuturePageable(userId, now,
+                        cursor.getTime(), cursor.getId(), pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllForItemsStatusPageable(userId, BookingStatus.WAITING, pageable);
+                bookings = bookingRepository.findAllForItemsStatusPageable(userId, BookingStatus.WAITING,
+                        cursor.getTime(), cursor.getId(), pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllForItemsStatusPageable(userId, BookingStatus.REJECTED, pageable);
+                bookings = bookingRepository.findAllForItemsStatusPageable(userId, BookingStatus.REJECTED,
+                        cursor.getTime(), cursor.getId(), pageable);
                 break;
             default:
                 throw new UnknownStatusException("Unknown state: UNSUPPORTED_STATUS");
         }
-        return BookingMapper.mapBookingsIntoResponse(bookings);
+        return bookings;
     }
 
-    private boolean isValidRequester(Long userId) {
-        if (userRepository.findById(userId).isPresent()) {
-            return true;
+    public BookingSummaryDto getSummary(Long userId) {
+        if (!isValidRequester(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        return bookingSummaryCache.getForBooker(userId, () -> bookingRepository.countByStateForBooker(userId,
+                LocalDateTime.now(), BookingStatus.WAITING, BookingStatus.REJECTED));
+    }
+
+    public BookingSummaryDto getSummaryForItems(Long userId) {
+        if (!isValidRequester(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        return bookingSummaryCache.getForOwner(userId, () -> bookingRepository.countByStateForOwner(userId,
+                LocalDateTime.now(), BookingStatus.WAITING, BookingStatus.REJECTED));
+    }
+
+    private BookingDtoResponse created(Booking booking) {
+        bookingIntervalIndex.addAfterCommit(booking);
+        bookingOutbox.record(booking, BookingEventType.CREATED);
+        bookingSummaryCache.invalidate(booking.getBooker().getId(), booking.getItem().getOwner());
+        bookingExpiryWheel.scheduleAfterCommit(booking);
+        return BookingMapper.mapBookingToBookingDtoResponse(booking);
+    }
+
+    private void applyDecision(List<Booking> decided, boolean approve) {
+        BookingStatus newStatus = approve ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        //the update clears the persistence context, so statuses are set on the detached copies afterwards
+        bookingRepository.updateStatusByIdInAndStatus(bookingIdsOf(decided), BookingStatus.WAITING, newStatus);
+        decided.forEach(booking -> booking.setStatus(newStatus));
+        bookingOutbox.recordAll(decided, approve ? BookingEventType.APPROVED : BookingEventType.REJECTED);
+        if (approve) {
+            LocalDateTime now = LocalDateTime.now();
+            itemRepository.findAllById(decided.stream()
+                            .map(booking -> booking.getItem().getId())
+                            .collect(toSet()))
+                    .forEach(item -> itemBookingPointers.refresh(item, now));
         } else {
-            return false;
+            decided.forEach(booking -> bookingIntervalIndex.removeAfterCommit(booking.getItem().getId(),
+                    booking.getId()));
+        }
+        decided.forEach(booking -> bookingSummaryCache.invalidate(booking.getBooker().getId(),
+                booking.getItem().getOwner()));
+    }
+
+    private List<BookingInterval> findApproved(List<Booking> bookings) {
+        LocalDateTime start = bookings.stream()
+                .map(Booking::getStart)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime end = bookings.stream()
+                .map(Booking::getEnd)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        return new ArrayList<>(bookingRepository.findIntervalsByItemIdInAndStatus(bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .collect(toList()), BookingStatus.APPROVED, start, end));
+    }
+
+    private boolean overlapsApproved(List<BookingInterval> approved, Booking booking) {
+        for (BookingInterval interval: approved) {
+            if (interval.getItemId().equals(booking.getItem().getId()) && !interval.getId().equals(booking.getId())
+                    && interval.getStart().isBefore(booking.getEnd())
+                    && interval.getEnd().isAfter(booking.getStart())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Long> bookingIdsOf(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getId)
+                .collect(toList());
+    }
+
+    private boolean isValidRequester(Long userId) {
+        return userIdIndex.contains(userId);
+    }
+
+    private void validateBooking(Long userId, Item item, BookingDtoCreate bookingDtoCreate) {
+        if (item.getAvailable().equals(false)) {
+            throw new ValidationException("На данный момент вещь недоступна для бронирования.");
+        }
+        if (!isValidBookingDto(bookingDtoCreate)) {
+            throw new ValidationException("Неверно введены данные времени начала и/или окончания.");
+        }
+        if (userId.equals(item.getOwner())) {
+            throw new EntityNotFoundException("Невозможно забронировать свою вещь.");
+        }
+        if (bookingIntervalIndex.hasOverlap(item.getId(), bookingDtoCreate.getStart(), bookingDtoCreate.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на указанный период.");
+        }
+    }
+
+    private boolean overlapsAccepted(List<Booking> accepted, BookingDtoCreate bookingDtoCreate) {
+        for (Booking booking: accepted) {
+            if (booking.getItem().getId().equals(bookingDtoCreate.getItemId())
+                    && booking.getStart().isBefore(bookingDtoCreate.getEnd())
+                    && booking.getEnd().isAfter(bookingDtoCreate.getStart())) {
+                return true;
+            }
         }
+        return false;
     }
 
     private boolean isValidBookingDto(BookingDtoCreate bookingDtoCreate) {
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+@Component
+public class BookingSummaryCache {
+
+    private final Duration ttl;
+    private final Summaries bookerSummaries;
+    private final Summaries ownerSummaries;
+
+    public BookingSummaryCache(@Value("${shareit.booking-summary.ttl:PT30S}") Duration ttl,
+                               @Value("${shareit.booking-summary.max-entries:10000}") int maxEntries) {
+        this.ttl = ttl;
+        this.bookerSummaries = new Summaries(maxEntries);
+        this.ownerSummaries = new Summaries(maxEntries);
+    }
+
+    public BookingSummaryDto getForBooker(Long userId, Supplier<BookingSummaryDto> loader) {
+        return get(bookerSummaries, userId, loader);
+    }
+
+    public BookingSummaryDto getForOwner(Long userId, Supplier<BookingSummaryDto> loader) {
+        return get(ownerSummaries, userId, loader);
+    }
+
+    //dropped after commit, otherwise a concurrent read could cache the state from before the change
+    public void invalidate(Long bookerId, Long ownerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(bookerId, ownerId);
+                }
+            });
+        } else {
+            evict(bookerId, ownerId);
+        }
+    }
+
+    private synchronized void evict(Long bookerId, Long ownerId) {
+        bookerSummaries.evict(bookerId);
+        ownerSummaries.evict(ownerId);
+    }
+
+    private BookingSummaryDto get(Summaries summaries, Long userId, Supplier<BookingSummaryDto> loader) {
+        long now = System.nanoTime();
+        Load load = new Load();
+        synchronized (this) {
+            Entry entry = summaries.entries.get(userId);
+            if (entry != null && now - entry.loadedAt < ttl.toNanos()) {
+                return entry.summary;
+            }
+            summaries.loads.computeIfAbsent(userId, key -> new ArrayList<>()).add(load);
+        }
+        BookingSummaryDto summary;
+        try {
+            summary = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                summaries.finish(userId, load);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            summaries.finish(userId, load);
+            if (!load.stale) {
+                summaries.entries.put(userId, new Entry(summary, now));
+            }
+        }
+        return summary;
+    }
+
+    //the cached summaries of one side plus the loads in flight for each user
+    private static class Summaries {
+        private final Map<Long, Entry> entries;
+        //a load of the user that runs across an eviction of the same user is not stored
+        private final Map<Long, List<Load>> loads = new HashMap<>();
+
+        Summaries(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        void evict(Long userId) {
+            entries.remove(userId);
+            List<Load> inFlight = loads.get(userId);
+            if (inFlight != null) {
+                inFlight.forEach(load -> load.stale = true);
+            }
+        }
+
+        void finish(Long userId, Load load) {
+            List<Load> inFlight = loads.get(userId);
+            inFlight.remove(load);
+            if (inFlight.isEmpty()) {
+                loads.remove(userId);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final BookingSummaryDto summary;
+        private final long loadedAt;
+
+        Entry(BookingSummaryDto summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static class Load {
+        private boolean stale;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+public class ItemLocks {
+
+    private static final int STRIPES = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+    private final ReentrantLock[] stripes = createStripes();
+
+    //holds the item lock until the surrounding transaction completes
+    public void lockUntilCompletion(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции.");
+        }
+        ReentrantLock lock = stripes[stripe(itemId)];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        //other server instances don't share the stripes, so the database serializes them
+        if (databaseDialect.isPostgres()) {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, itemId);
+        }
+    }
+
+    //several items are locked in stripe order: item ids in order don't give stripes in order
+    public void lockAllUntilCompletion(Collection<Long> itemIds) {
+        itemIds.stream()
+                .distinct()
+                .sorted(Comparator.comparingInt(this::stripe).thenComparing(Comparator.naturalOrder()))
+                .forEach(this::lockUntilCompletion);
+    }
+
+    private int stripe(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        hash ^= hash >>> 16;
+        return hash & (STRIPES - 1);
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -30,4 +30,9 @@ public class BookingDtoResponse {
     private BookingStatus status;
     private Booker booker;
     private Item item;
+
+    public BookingDtoResponse(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Long bookerId, String bookerName, Long itemId, String itemName) {
+        this(id, start, end, status, new Booker(bookerId, bookerName), new Item(itemId, itemName));
+    }
 }
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "booking_events", schema = "public")
+@Getter
+@Setter
+@ToString
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "booking")
+    private Long bookingId;
+    @Column(name = "item")
+    private Long itemId;
+    @Column(name = "item_owner")
+    private Long ownerId;
+    @Column(name = "booker")
+    private Long bookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    private BookingEventType type;
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+    @Column(name = "created")
+    private LocalDateTime created;
+    @Column(name = "dispatched")
+    private LocalDateTime dispatched;
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingEventDispatcher {
+
+    private final BookingEventRepository bookingEventRepository;
+    private final List<BookingEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${shareit.booking-events.batch-size:200}")
+    private int batchSize;
+    @Value("${shareit.booking-events.retention:P7D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-events.dispatch-delay:1000}")
+    public void dispatch() {
+        try {
+            int sent;
+            do {
+                sent = transactionTemplate.execute(status -> dispatchBatch());
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Не удалось доставить события бронирований, повтор при следующем запуске.", e);
+        }
+    }
+
+    @Scheduled(cron = "${shareit.booking-events.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                bookingEventRepository.deleteDispatchedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Удалено {} доставленных событий бронирований.", deleted);
+    }
+
+    private int dispatchBatch() {
+        List<BookingEvent> events = bookingEventRepository.findPending(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (BookingEventSink sink: sinks) {
+            sink.send(events);
+        }
+        bookingEventRepository.markDispatched(events.stream()
+                .map(BookingEvent::getId)
+                .collect(toList()), LocalDateTime.now());
+        return events.size();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.event;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+
+    //skip locked lets several dispatchers drain the outbox without waiting on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query(value = "select e from BookingEvent e " +
+            "where e.dispatched is null " +
+            "order by e.id")
+    List<BookingEvent> findPending(Pageable pageable);
+
+    @Modifying
+    @Query(value = "update BookingEvent e " +
+            "set e.dispatched = ?2 " +
+            "where e.id in ?1")
+    int markDispatched(List<Long> ids, LocalDateTime time);
+
+    @Modifying
+    @Query(value = "delete from BookingEvent e " +
+            "where e.dispatched < ?1")
+    int deleteDispatchedBefore(LocalDateTime time);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.event;
+
+import java.util.List;
+
+public interface BookingEventSink {
+
+    //events arrive in outbox order; throwing leaves the whole batch pending for the next run
+    void send(List<BookingEvent> events);
+}
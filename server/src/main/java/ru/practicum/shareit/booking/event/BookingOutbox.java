@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+
+    private static final String INSERT = "INSERT INTO booking_events " +
+            "(booking, item, item_owner, booker, event_type, status, created) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final BookingEventRepository bookingEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    //must be called inside the transaction that changes the booking
+    public void record(Booking booking, BookingEventType type) {
+        bookingEventRepository.save(toEvent(booking, type));
+    }
+
+    //hibernate doesn't batch inserts of identity entities, so the events of many bookings go in one jdbc batch
+    public void recordAll(List<Booking> bookings, BookingEventType type) {
+        Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, bookings, bookings.size(), (statement, booking) -> {
+            statement.setLong(1, booking.getId());
+            statement.setLong(2, booking.getItem().getId());
+            statement.setLong(3, booking.getItem().getOwner());
+            statement.setLong(4, booking.getBooker().getId());
+            statement.setString(5, type.name());
+            statement.setString(6, booking.getStatus().name());
+            statement.setTimestamp(7, created);
+        });
+    }
+
+    private BookingEvent toEvent(Booking booking, BookingEventType type) {
+        BookingEvent event = new BookingEvent();
+        event.setBookingId(booking.getId());
+        event.setItemId(booking.getItem().getId());
+        event.setOwnerId(booking.getItem().getOwner());
+        event.setBookerId(booking.getBooker().getId());
+        event.setType(type);
+        event.setStatus(booking.getStatus());
+        event.setCreated(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking-events.in-process.enabled", havingValue = "true",
+        matchIfMissing = true)
+@RequiredArgsConstructor
+public class InProcessBookingEventSink implements BookingEventSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public void send(List<BookingEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.cache;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+//bounded on-heap regions for the hibernate second-level cache, every region hibernate asks for must be listed here
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+    public static final List<String> REGIONS = List.of(USERS, ITEMS, QUERY_RESULTS, UPDATE_TIMESTAMPS);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${shareit.cache.max-entities:10000}") long maxEntities,
+                                                @Value("${shareit.cache.max-queries:1000}") long maxQueries,
+                                                @Value("${shareit.cache.ttl:PT10M}") Duration ttl) {
+        //own uri per context, the default one is shared by every cache manager in the jvm
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:shareit-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+        createRegion(cacheManager, USERS, maxEntities, ttl);
+        createRegion(cacheManager, ITEMS, maxEntities, ttl);
+        createRegion(cacheManager, QUERY_RESULTS, maxQueries, ttl);
+        //timestamps guard the cached query results, so they must not expire before them
+        createRegion(cacheManager, UPDATE_TIMESTAMPS, 1000, null);
+        REGIONS.forEach(region -> cacheManager.enableStatistics(region, true));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxEntries, Duration ttl) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttl != null) {
+            //other server instances don't invalidate this cache, the ttl bounds how stale it can get
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.stats.dto.CacheRegionStatsDto;
+
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+//reads the statistics the jcache provider publishes over jmx for each region
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStats {
+
+    private final CacheManager secondLevelCacheManager;
+
+    public List<CacheRegionStatsDto> get() {
+        return SecondLevelCacheConfiguration.REGIONS.stream()
+                .map(this::get)
+                .collect(toList());
+    }
+
+    private CacheRegionStatsDto get(String region) {
+        CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                objectName(region), CacheStatisticsMXBean.class);
+        return new CacheRegionStatsDto(region, statistics.getCacheHits(), statistics.getCacheMisses(),
+                statistics.getCachePuts(), statistics.getCacheEvictions(), statistics.getCacheHitPercentage());
+    }
+
+    private ObjectName objectName(String region) {
+        try {
+            //the provider replaces characters that are special in object names with dots
+            return new ObjectName("javax.cache:type=CacheStatistics,CacheManager="
+                    + secondLevelCacheManager.getURI().toString().replaceAll("[,:=\n]", ".")
+                    + ",Cache=" + region.replaceAll("[,:=\n]", "."));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
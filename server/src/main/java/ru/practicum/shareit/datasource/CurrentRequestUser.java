@@ -0,0 +1,23 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+//the user of the request being served on this thread, if the request named one
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CurrentRequestUser {
+
+    private static final ThreadLocal<Long> USER_ID = new ThreadLocal<>();
+
+    public static Long get() {
+        return USER_ID.get();
+    }
+
+    public static void set(Long userId) {
+        USER_ID.set(userId);
+    }
+
+    public static void clear() {
+        USER_ID.remove();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class CurrentRequestUserFilter extends OncePerRequestFilter {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(USER_HEADER);
+        try {
+            if (header != null) {
+                try {
+                    CurrentRequestUser.set(Long.valueOf(header.trim()));
+                } catch (NumberFormatException e) {
+                    //the controller rejects the header itself
+                }
+            }
+            chain.doFilter(request, response);
+        } finally {
+            CurrentRequestUser.clear();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoInc;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.time.LocalDateTime;
@@ -26,6 +27,15 @@ public class CommentMapper {
         return commentDtos;
     }
 
+    public static List<CommentDto> mapViewsToCommentDtos(List<CommentView> comments) {
+        List<CommentDto> commentDtos = new ArrayList<>();
+        for (CommentView comment: comments) {
+            commentDtos.add(new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(),
+                    comment.getCreated()));
+        }
+        return commentDtos;
+    }
+
     public static Comment mapToComment(CommentDtoInc commentDtoInc, Long itemId, User user) {
         Comment comment = new Comment();
         comment.setText(commentDtoInc.getText());
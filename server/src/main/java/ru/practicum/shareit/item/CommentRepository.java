@@ -1,18 +1,35 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByItem(Long itemId);
 
+    //numbers the comments of each item from the newest, so only the first rows of every item leave the database
+    @Query(value = "select c.id as id, c.comment_text as text, c.item as item, u.user_name as authorName, " +
+            "c.created as created, c.total as total " +
+            "from (select cm.*, " +
+            "row_number() over (partition by cm.item order by cm.created desc, cm.id desc) as item_position, " +
+            "count(*) over (partition by cm.item) as total " +
+            "from comments cm " +
+            "where cm.item in ?1) c " +
+            "join users u on u.id = c.author " +
+            "where c.item_position <= ?2 " +
+            "order by c.item, c.created desc, c.id desc",
+            nativeQuery = true)
+    List<CommentView> findLatestByItemIn(List<Long> itemIds, int limit);
+
     @Query(value = "select c from Comment c " +
-            "where c.item in ?1 " +
-            "group by c.id")
-    List<Comment> findByItemIn(List<Long> itemIds, Sort sort);
+            "join fetch c.author " +
+            "where c.item = ?1 and " +
+            "c.created <= ?2 and (c.created < ?2 or c.id < ?3)")
+    List<Comment> findByItemPageable(Long itemId, LocalDateTime afterCreated, Long afterId, Pageable pageable);
 }
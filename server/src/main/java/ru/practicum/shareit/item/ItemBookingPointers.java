@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemLocks;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemBookingPointers {
+
+    private static final int SWEEP_PAGE_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemLocks itemLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    public void refresh(Item item, LocalDateTime now) {
+        Booking last = bookingRepository
+                .findLastByItemIdAndStatus(item.getId(), BookingStatus.APPROVED, now, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        Booking next = bookingRepository
+                .findNextByItemIdAndStatus(item.getId(), BookingStatus.APPROVED, now, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        item.setLastBooking(last == null ? null : last.getId());
+        item.setNextBooking(next == null ? null : next.getId());
+        item.setNextBookingStart(next == null ? null : next.getStart());
+    }
+
+    //moves pointers of items whose next booking has already started, one page per transaction
+    @Scheduled(fixedDelayString = "${shareit.item-booking-pointers.sweep-delay:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int swept = 0;
+        int page;
+        do {
+            page = transactionTemplate.execute(status -> refreshLocked(itemRepository
+                    .findIdsByNextBookingStartLessThanEqual(now, PageRequest.of(0, SWEEP_PAGE_SIZE)), now));
+            swept += page;
+        } while (page > 0);
+        if (swept > 0) {
+            log.info("Обновлены ссылки на бронирования для {} вещей.", swept);
+        }
+    }
+
+    //fills pointers for items booked before the columns existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDateTime now = LocalDateTime.now();
+        int filled = transactionTemplate.execute(status -> refreshLocked(itemRepository
+                .findIdsWithApprovedBookingsAndNoPointers(BookingStatus.APPROVED), now));
+        if (filled > 0) {
+            log.info("Заполнены ссылки на бронирования для {} вещей.", filled);
+        }
+    }
+
+    //the items are read only once their locks are held, so a decision committed meanwhile isn't overwritten
+    private int refreshLocked(List<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        itemLocks.lockAllUntilCompletion(itemIds);
+        List<Item> items = itemRepository.findAllById(itemIds);
+        items.forEach(item -> refresh(item, now));
+        itemRepository.flush();
+        return items.size();
+    }
+}
@@ -2,14 +2,22 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoInc;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -27,12 +35,13 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDtoResponse> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                        @RequestParam(defaultValue = "0") Integer from,
-                                        @RequestParam(defaultValue = "10") Integer size) {
-        List<ItemDtoResponse> response = itemService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemDtoResponse>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false) String after) {
+        List<ItemDtoResponse> response = itemService.getAll(userId, from, size, after);
         log.info("Запрошен список вещей.");
-        return response;
+        return PageCursor.withNextCursor(response, size, item -> PageCursor.encode(item.getId()));
     }
 
     @GetMapping("/{itemId}")
@@ -42,6 +51,16 @@ public class ItemController {
         return response;
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilitySlotDto> getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                     @PathVariable Long itemId,
+                                                     @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime to) {
+        List<AvailabilitySlotDto> response = itemService.getAvailability(userId, itemId, from, to);
+        log.info("Выведены свободные периоды вещи {}: {}.", itemId, response.size());
+        return response;
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId,
                             @RequestBody ItemDto itemDto) {
@@ -51,13 +70,37 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                @RequestParam String text,
-                                @RequestParam(defaultValue = "0") Integer from,
-                                @RequestParam(defaultValue = "10") Integer size) {
-        List<ItemDto> items = itemService.search(userId, text, from, size);
+    public ResponseEntity<List<ItemDto>> search(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestParam String text,
+                                                @RequestParam(defaultValue = "0") Integer from,
+                                                @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "false") Boolean fuzzy) {
+        List<ItemDto> items = itemService.search(userId, text, from, size, after, fuzzy);
         log.info("Выполнен поиск по описанию: {}", text);
-        return items;
+        long next = PageCursor.offset(after, from) / size * size + size;
+        return PageCursor.withNextCursor(items, size, item -> PageCursor.encode(next));
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") Integer limit) {
+        List<ItemSuggestionDto> response = itemService.suggest(userId, prefix, limit);
+        log.info("Выведены подсказки по названию: {}", prefix);
+        return response;
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @PathVariable Long itemId,
+                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false) String after) {
+        List<CommentDto> response = itemService.getComments(userId, itemId, from, size, after);
+        log.info("Выведен список комментариев к вещи.");
+        return PageCursor.withNextCursor(response, size, comment -> PageCursor.encode(comment.getCreated(),
+                comment.getId()));
     }
 
     @PostMapping("/{itemId}/comment")
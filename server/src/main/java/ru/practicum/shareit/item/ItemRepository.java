@@ -3,23 +3,79 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Item> findByOwnerOrderById(Long userId);
 
-    List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailable(String text, String str,
-                                                                              Boolean available, Pageable pageable);
+    //the text comes with its like wildcards escaped by a backslash
+    @Query(value = "select i from Item i " +
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) escape '\\' or " +
+            "upper(i.description) like upper(concat('%', ?1, '%')) escape '\\') and " +
+            "i.available = true " +
+            "order by i.id")
+    List<Item> search(String likePattern, Pageable pageable);
+
+    //postgresql only: full-text matches rank by ts_rank_cd, plain substring matches by trigram similarity
+    @Query(value = "SELECT i.* FROM items i, websearch_to_tsquery('simple', ?1) q " +
+            "WHERE i.available = TRUE AND " +
+            "(i.search_vector @@ q OR i.item_name ILIKE concat('%', ?2, '%') " +
+            "OR i.description ILIKE concat('%', ?2, '%')) " +
+            "ORDER BY ts_rank_cd(i.search_vector, q) + similarity(i.item_name, ?1) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchRanked(String text, String likePattern, Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.request) " +
+            "from Item i " +
+            "where i.id > ?1 " +
+            "order by i.id")
+    List<ItemDto> findSearchEntries(Long afterId, Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.request) " +
+            "from Item i " +
+            "where i.id in ?1 " +
+            "order by i.id")
+    List<ItemDto> findSearchEntriesByIdIn(Collection<Long> ids);
+
+    @Query(value = "select new ru.practicum.shareit.item.dto.ItemPopularityDto(i.id, i.name, i.available, " +
+            "count(b.id)) " +
+            "from Item i " +
+            "left join Booking b on b.item = i " +
+            "where i.id > ?1 " +
+            "group by i.id, i.name, i.available " +
+            "order by i.id")
+    List<ItemPopularityDto> findPopularityEntries(Long afterId, Pageable pageable);
 
     List<Item> findByRequestInOrderByIdDesc(List<Long> requests);
 
     List<Item> findByRequestOrderByIdDesc(Long requestId);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query(value = "select i from Item i " +
-            "where i.owner = ?1 " +
-            "group by i.id")
-    List<Item> findByOwnerOrderByIdPageable(Long userId, Pageable pageable);
+            "where i.owner = ?1 and " +
+            "i.id > ?2")
+    List<Item> findByOwnerOrderByIdPageable(Long userId, Long afterId, Pageable pageable);
+
+    @Query(value = "select i.id from Item i " +
+            "where i.nextBookingStart <= ?1")
+    List<Long> findIdsByNextBookingStartLessThanEqual(LocalDateTime time, Pageable pageable);
+
+    @Query(value = "select i.id from Item i " +
+            "where i.lastBooking is null and " +
+            "i.nextBooking is null and " +
+            "exists (select b.id from Booking b where b.item = i and b.status = ?1)")
+    List<Long> findIdsWithApprovedBookingsAndNoPointers(BookingStatus status);
 }
@@ -1,17 +1,29 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameTrie;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemTermDictionary;
+import ru.practicum.shareit.item.search.SearchQuerySketch;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
@@ -23,8 +35,11 @@ import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.springframework.data.domain.Sort.Direction.ASC;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
@@ -33,38 +48,55 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 @Transactional(readOnly = true)
 public class ItemService {
 
+    //the default page size of /items/search, the page most clients ask for
+    private static final int SEARCH_WARM_PAGE_SIZE = 10;
+    //comments shown with an item; the rest are paged through /items/{itemId}/comments
+    private static final int LATEST_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final UserIdIndex userIdIndex;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemNameTrie itemNameTrie;
+    private final ItemTermDictionary itemTermDictionary;
+    private final ItemSearchCache itemSearchCache;
+    private final SearchQuerySketch searchQuerySketch;
+    private final ItemViewCache itemViewCache;
 
     @Transactional
     public ItemDto create(Long userId, ItemDto itemDto) {
         if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
         Item item = ItemMapper.mapToNewItem(itemDto);
         item.setOwner(userId);
-        return ItemMapper.mapToItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        itemSearchEngine.indexAfterCommit(saved);
+        itemNameTrie.putAfterCommit(saved);
+        itemTermDictionary.indexAfterCommit(saved);
+        itemSearchCache.invalidateAfterCommit(null, saved);
+        return ItemMapper.mapToItemDto(saved);
     }
 
-    public List<ItemDtoResponse> getAll(Long userId, Integer from, Integer size) {
+    public List<ItemDtoResponse> getAll(Long userId, Integer from, Integer size, String after) {
         if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(ASC, "id"));
-        List<Item> items = itemRepository.findByOwnerOrderByIdPageable(userId, pageable);
+        Pageable pageable = PageCursor.pageable(after, from, size, Sort.by(ASC, "id"));
+        List<Item> items = itemRepository.findByOwnerOrderByIdPageable(userId, PageCursor.decodeId(after), pageable);
         return mapItemsToItemDtoResponses(items);
     }
 
     public ItemDtoResponse getById(Long userId, Long itemId) {
-        User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
+        if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        //the item comes from the second level cache; owners see bookings, so their view is never cached
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Неверный ID вещи."));
         if (item.getOwner().equals(userId)) {
-            return mapItemsToItemDtoResponses(List.of(item)).get(0);
+            return mapItemToItemDtoResponse(item);
         } else {
-            ItemDtoResponse response = ItemMapper.mapToResponseWithoutBookings(item);
-            List<Comment> comments = commentRepository.findByItem(itemId);
-            response.setComments(CommentMapper.mapToCommentDtos(comments));
-            return response;
+            //read again once the load is registered, an update committed before that would not evict it
+            return itemViewCache.get(itemId, () -> loadItemView(itemRepository.findById(itemId)
+                    .orElseThrow(() -> new EntityNotFoundException("Неверный ID вещи.")))).getResponse();
         }
     }
 
@@ -75,6 +107,7 @@ public class ItemService {
                 .orElseThrow(() -> new ItemNotFoundException("Неверный ID вещи."));
         if (!item.getOwner().equals(userId))
             throw new UserNotFoundException("Вещь не принадлежит данному пользователю.");
+        ItemDto before = ItemMapper.mapToItemDto(item);
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
             item.setName(itemDto.getName());
         }
@@ -84,16 +117,58 @@ public class ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
+        itemSearchEngine.indexAfterCommit(item);
+        itemNameTrie.putAfterCommit(item);
+        itemTermDictionary.indexAfterCommit(item);
+        itemSearchCache.invalidateAfterCommit(before, item);
+        itemViewCache.invalidateAfterCommit(itemId);
         return ItemMapper.mapToItemDto(item);
     }
 
-    public List<ItemDto> search(Long userId, String text, Integer from, Integer size) {
+    public List<ItemDto> search(Long userId, String text, Integer from, Integer size, String after, Boolean fuzzy) {
+        if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        //ranked results have no key to continue from, so search pages by offset
+        Pageable pageable = PageRequest.of(PageCursor.offset(after, from) / size, size);
+        if (fuzzy) {
+            return ItemMapper.mapToItemDto(itemTermDictionary.search(text, pageable));
+        }
+        searchQuerySketch.record(text);
+        return itemSearchCache.get(text, pageable, () -> ItemMapper.mapToItemDto(itemSearchEngine.search(text,
+                pageable)));
+    }
+
+    //runs after the in-memory search indexes are built, otherwise it would cache empty pages
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmSearchCache() {
+        Pageable pageable = PageRequest.of(0, SEARCH_WARM_PAGE_SIZE);
+        searchQuerySketch.getTop().forEach(query -> itemSearchCache.get(query.getText(), pageable,
+                () -> ItemMapper.mapToItemDto(itemSearchEngine.search(query.getText(), pageable))));
+    }
+
+    public List<ItemSuggestionDto> suggest(Long userId, String prefix, Integer limit) {
+        if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        return itemNameTrie.suggest(prefix, limit);
+    }
+
+    public List<AvailabilitySlotDto> getAvailability(Long userId, Long itemId, LocalDateTime from,
+                                                     LocalDateTime to) {
         if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
-        Boolean available = true;
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(ASC, "id"));
-        return ItemMapper.mapToItemDto(itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailable(text, text,
-                        available, pageable));
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Неверно введены данные времени начала и/или окончания.");
+        }
+        if (!itemRepository.existsById(itemId)) throw new EntityNotFoundException("Неверный ID вещи.");
+        return bookingIntervalIndex.freeSlots(itemId, from, to);
+    }
+
+    public List<CommentDto> getComments(Long userId, Long itemId, Integer from, Integer size, String after) {
+        if (!isValidOwner(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
+        if (!itemRepository.existsById(itemId)) throw new EntityNotFoundException("Неверный ID вещи.");
+        PageCursor cursor = PageCursor.decode(after);
+        Pageable pageable = PageCursor.pageable(after, from, size, Sort.by(DESC, "created", "id"));
+        List<Comment> comments = commentRepository.findByItemPageable(itemId, cursor.getTime(), cursor.getId(),
+                pageable);
+        return CommentMapper.mapToCommentDtos(comments);
     }
 
     @Transactional
@@ -106,58 +181,72 @@ public class ItemService {
                 LocalDateTime.now());
         if (bookings.isEmpty()) throw new ValidationException("Данный пользователь не может оставить комментарий.");
         Comment comment = CommentMapper.mapToComment(commentDtoInc, itemId, user);
-        return CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        CommentDto saved = CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        itemViewCache.invalidateAfterCommit(itemId);
+        return saved;
+    }
+
+    //what users other than the owner see: the item without bookings and with all of its comments
+    private ItemViewCache.ItemView loadItemView(Item item) {
+        ItemDtoResponse response = ItemMapper.mapToResponseWithoutBookings(item);
+        List<Comment> comments = commentRepository.findByItem(item.getId());
+        response.setComments(CommentMapper.mapToCommentDtos(comments));
+        response.setCommentCount((long) comments.size());
+        Set<Long> authorIds = comments.stream()
+                .map(comment -> comment.getAuthor().getId())
+                .collect(toSet());
+        return new ItemViewCache.ItemView(item.getOwner(), response, authorIds);
     }
 
     private boolean isValidOwner(Long userId) {
-        if (userRepository.findById(userId).isPresent()) {
-            return true;
-        } else {
-            return false;
-        }
+        return userIdIndex.contains(userId);
     }
 
+    //listings show only the latest comments of each item
     private List<ItemDtoResponse> mapItemsToItemDtoResponses(List<Item> items) {
-        List<ItemDtoResponse> responses = new ArrayList<>();
+        List<ItemDtoResponse> responses = mapWithBookings(items);
         List<Long> itemIds = items.stream()
                 .map(Item::getId)
                 .collect(toList());
-        //creating map of item/bookings
-        Map<Item, List<Booking>> approvedBookings = bookingRepository.findByItemInAndStatus(itemIds,
-                        BookingStatus.APPROVED, Sort.by(DESC, "start")).stream()
-                        .collect(groupingBy(Booking::getItem, toList()));
-        //creating map of item id/comments
-        Map<Long, List<Comment>> sortedComments =
-                commentRepository.findByItemIn(itemIds, Sort.by(DESC, "created"))
+        //creating map of item id/latest comments
+        Map<Long, List<CommentView>> latestComments = itemIds.isEmpty() ? Map.of() :
+                commentRepository.findLatestByItemIn(itemIds, LATEST_COMMENTS)
                         .stream()
-                        .collect(groupingBy(Comment::getItem, toList()));
+                        .collect(groupingBy(CommentView::getItem, toList()));
+        for (ItemDtoResponse response: responses) {
+            List<CommentView> comments = latestComments.getOrDefault(response.getId(), Collections.emptyList());
+            response.setComments(CommentMapper.mapViewsToCommentDtos(comments));
+            response.setCommentCount(comments.isEmpty() ? 0L : comments.get(0).getTotal());
+        }
+        return responses;
+    }
+
+    //the owner's view of a single item keeps all of its comments, like everyone else's view
+    private ItemDtoResponse mapItemToItemDtoResponse(Item item) {
+        ItemDtoResponse response = mapWithBookings(List.of(item)).get(0);
+        List<Comment> comments = commentRepository.findByItem(item.getId());
+        response.setComments(CommentMapper.mapToCommentDtos(comments));
+        response.setCommentCount((long) comments.size());
+        return response;
+    }
+
+    private List<ItemDtoResponse> mapWithBookings(List<Item> items) {
+        List<ItemDtoResponse> responses = new ArrayList<>();
+        //creating map of booking id/pointed bookings
+        List<Long> bookingIds = new ArrayList<>();
+        for (Item item: items) {
+            if (item.getLastBooking() != null) bookingIds.add(item.getLastBooking());
+            if (item.getNextBooking() != null) bookingIds.add(item.getNextBooking());
+        }
+        Map<Long, Booking> pointedBookings = bookingRepository.findAllById(bookingIds).stream()
+                .collect(toMap(Booking::getId, identity()));
         //transforming items into dto and filling the result list
         for (Item item: items) {
-            //filling spaces
             ItemDtoResponse response = ItemMapper.mapToResponseWithoutBookings(item);
-            response.setComments(CommentMapper.mapToCommentDtos(sortedComments.getOrDefault(item.getId(),
-                    Collections.emptyList())));
-            //filling bookings
-            List<Booking> bookings = approvedBookings.getOrDefault(item, Collections.emptyList());
-            LocalDateTime now = LocalDateTime.now();
-            if (bookings.size() == 0) {
-                response.setNextBooking(null);
-                response.setLastBooking(null);
-            } else {
-                for (int i = 0; i < bookings.size(); i++) {
-                    if (!bookings.get(i).getStart().isAfter(now)) {
-                        response.setLastBooking(BookingMapper.mapToBookingDtoForItems(bookings.get(i)));
-                        if (i != 0) {
-                            response.setNextBooking(BookingMapper.mapToBookingDtoForItems(bookings.get(i - 1)));
-                        }
-                        break;
-                    }
-                    if (response.getLastBooking() == null) {
-                        response.setNextBooking(BookingMapper
-                                .mapToBookingDtoForItems(bookings.get(bookings.size() - 1)));
-                    }
-                }
-            }
+            Booking last = pointedBookings.get(item.getLastBooking());
+            Booking next = pointedBookings.get(item.getNextBooking());
+            response.setLastBooking(last == null ? null : BookingMapper.mapToBookingDtoForItems(last));
+            response.setNextBooking(next == null ? null : BookingMapper.mapToBookingDtoForItems(next));
             responses.add(response);
         }
         return responses;
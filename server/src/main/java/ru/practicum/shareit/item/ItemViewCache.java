@@ -0,0 +1,245 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.stats.dto.ItemViewCacheStatsDto;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+//item views as other users see them, bounded by their estimated size; concurrent misses of one item share a load
+@Component
+public class ItemViewCache {
+
+    private final long maxBytes;
+    private final Duration ttl;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Load> loads = new HashMap<>();
+    //items whose cached view shows a comment of the user
+    private final Map<Long, Set<Long>> itemsByAuthor = new HashMap<>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long invalidations;
+    private long evictions;
+
+    public ItemViewCache(@Value("${shareit.items.view-cache.max-bytes:16777216}") long maxBytes,
+                         @Value("${shareit.items.view-cache.ttl:PT1M}") Duration ttl) {
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+    }
+
+    public ItemView get(Long itemId, Supplier<ItemView> loader) {
+        Load load;
+        boolean loading = false;
+        synchronized (this) {
+            Entry entry = entries.get(itemId);
+            if (entry != null && System.nanoTime() - entry.loadedAt < ttl.toNanos()) {
+                hits++;
+                return entry.view;
+            }
+            load = loads.get(itemId);
+            if (load == null) {
+                misses++;
+                load = new Load();
+                loads.put(itemId, load);
+                loading = true;
+            } else {
+                coalesced++;
+            }
+        }
+        if (!loading) {
+            return await(load);
+        }
+        long loadedAt = System.nanoTime();
+        ItemView view;
+        try {
+            view = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loads.remove(itemId);
+            }
+            load.future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            loads.remove(itemId);
+            if (!load.stale) {
+                put(itemId, view, loadedAt);
+            }
+        }
+        load.future.complete(view);
+        return view;
+    }
+
+    public void invalidateAfterCommit(Long itemId) {
+        afterCommit(() -> evictItem(itemId));
+    }
+
+    //author names are copied into the views, so a renamed user invalidates the items they commented on
+    public void invalidateAuthorAfterCommit(Long userId) {
+        afterCommit(() -> evictAuthor(userId));
+    }
+
+    public synchronized ItemViewCacheStatsDto getStats() {
+        long requests = hits + misses + coalesced;
+        return new ItemViewCacheStatsDto(hits, misses, coalesced, invalidations, evictions, entries.size(), bytes,
+                requests == 0 ? 0 : hits * 100f / requests);
+    }
+
+    private void put(Long itemId, ItemView view, long loadedAt) {
+        remove(itemId);
+        Entry entry = new Entry(view, loadedAt, estimateBytes(view.response));
+        entries.put(itemId, entry);
+        bytes += entry.bytes;
+        for (Long authorId: view.getAuthorIds()) {
+            itemsByAuthor.computeIfAbsent(authorId, key -> new HashSet<>()).add(itemId);
+        }
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, Entry> evicted = eldest.next();
+            if (evicted.getKey().equals(itemId)) {
+                break;
+            }
+            eldest.remove();
+            forget(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+    }
+
+    private synchronized void evictItem(Long itemId) {
+        Load load = loads.get(itemId);
+        if (load != null) {
+            load.stale = true;
+        }
+        if (remove(itemId)) {
+            invalidations++;
+        }
+    }
+
+    private synchronized void evictAuthor(Long userId) {
+        //the authors of a view being loaded are not known yet
+        loads.values().forEach(load -> load.stale = true);
+        Set<Long> itemIds = itemsByAuthor.remove(userId);
+        if (itemIds == null) {
+            return;
+        }
+        for (Long itemId: itemIds) {
+            if (remove(itemId)) {
+                invalidations++;
+            }
+        }
+    }
+
+    private boolean remove(Long itemId) {
+        Entry entry = entries.remove(itemId);
+        if (entry == null) {
+            return false;
+        }
+        forget(itemId, entry);
+        return true;
+    }
+
+    private void forget(Long itemId, Entry entry) {
+        bytes -= entry.bytes;
+        for (Long authorId: entry.view.getAuthorIds()) {
+            Set<Long> itemIds = itemsByAuthor.get(authorId);
+            if (itemIds != null) {
+                itemIds.remove(itemId);
+                if (itemIds.isEmpty()) {
+                    itemsByAuthor.remove(authorId);
+                }
+            }
+        }
+    }
+
+    private static ItemView await(Load load) {
+        try {
+            return load.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    //strings dominate: two bytes per char plus rough object headers for the dto, each comment and the entry
+    static long estimateBytes(ItemDtoResponse response) {
+        long size = 160 + 2L * (length(response.getName()) + length(response.getDescription()));
+        if (response.getComments() != null) {
+            for (CommentDto comment: response.getComments()) {
+                size += 120 + 2L * (length(comment.getText()) + length(comment.getAuthorName()));
+            }
+        }
+        return size;
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    @Getter
+    public static final class ItemView {
+        private final Long ownerId;
+        private final ItemDtoResponse response;
+        private final Set<Long> authorIds;
+
+        public ItemView(Long ownerId, ItemDtoResponse response, Set<Long> authorIds) {
+            this.ownerId = ownerId;
+            this.response = response;
+            this.authorIds = authorIds;
+        }
+
+        //the cached dto is shared by every caller, so each one gets its own copy to change
+        public ItemDtoResponse getResponse() {
+            List<CommentDto> comments = response.getComments() == null ? null : response.getComments().stream()
+                    .map(comment -> new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(),
+                            comment.getCreated()))
+                    .collect(Collectors.toList());
+            return new ItemDtoResponse(response.getId(), response.getName(), response.getDescription(),
+                    response.getAvailable(), response.getLastBooking(), response.getNextBooking(), comments,
+                    response.getCommentCount());
+        }
+    }
+
+    private static final class Entry {
+        private final ItemView view;
+        private final long loadedAt;
+        private final long bytes;
+
+        Entry(ItemView view, long loadedAt, long bytes) {
+            this.view = view;
+            this.loadedAt = loadedAt;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Load {
+        private final CompletableFuture<ItemView> future = new CompletableFuture<>();
+        private boolean stale;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+//a row of the latest comments query: the comment with its author name and the number of comments on its item
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    Long getItem();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getTotal();
+}
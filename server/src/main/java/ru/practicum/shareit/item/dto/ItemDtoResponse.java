@@ -17,4 +17,5 @@ public class ItemDtoResponse {
     private BookingDtoFotItems lastBooking;
     private BookingDtoFotItems nextBooking;
     private List<CommentDto> comments;
+    private Long commentCount;
 }
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.SecondLevelCacheConfiguration;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.ITEMS)
 @Table(name = "items", schema = "public")
 @Getter
 @Setter
@@ -23,4 +29,10 @@ public class Item {
     private Long owner;
     @Column(name = "request")
     private Long request;
+    @Column(name = "last_booking")
+    private Long lastBooking;
+    @Column(name = "next_booking")
+    private Long nextBooking;
+    @Column(name = "next_booking_start")
+    private LocalDateTime nextBookingStart;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+//sorted, duplicate-free document numbers of one n-gram
+final class IntPostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] docs = new int[INITIAL_CAPACITY];
+    private int size;
+
+    //documents get increasing numbers, so a list only ever grows at its end
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] == doc) {
+            return;
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[size++] = doc;
+    }
+
+    int get(int position) {
+        return docs[position];
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return docs.length;
+    }
+}
@@ -0,0 +1,412 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//radix trie of available item names; every node keeps the most booked items below it, so a lookup is one walk
+@Component
+@Slf4j
+public class ItemNameTrie {
+
+    private static final Comparator<Suggestion> RANK = Comparator
+            .comparingLong((Suggestion suggestion) -> suggestion.bookings).reversed()
+            .thenComparingLong(suggestion -> suggestion.itemId);
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    private final ItemRepository itemRepository;
+    private final int topK;
+    private final int loadPageSize;
+    private Node root = new Node("");
+    //every known item, unavailable ones too, so their booking counts survive an availability toggle
+    private Map<Long, Suggestion> suggestions = new HashMap<>();
+    //bookings already counted, so an event delivered twice by the outbox is counted once
+    private final Set<Long> countedBookings;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemNameTrie(ItemRepository itemRepository,
+                        @Value("${shareit.items.suggest.top-k:10}") int topK,
+                        @Value("${shareit.items.suggest.load-page-size:10000}") int loadPageSize,
+                        @Value("${shareit.items.suggest.counted-bookings:100000}") int countedBookings) {
+        this.itemRepository = itemRepository;
+        this.topK = topK;
+        this.loadPageSize = loadPageSize;
+        this.countedBookings = Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > countedBookings;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Дерево подсказок по названиям вещей построено: {}.", reload());
+    }
+
+    //items created or renamed on other server instances, and their bookings, only get here with a reload
+    @Scheduled(fixedDelayString = "${shareit.items.suggest.refresh-millis:600000}",
+            initialDelayString = "${shareit.items.suggest.refresh-millis:600000}")
+    public void refresh() {
+        reload();
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                Node child = node.child(key.charAt(position));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, position);
+                if (position + common == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                node = child;
+                position += common;
+            }
+            int count = Math.min(Math.min(limit, topK), node.top.length);
+            List<ItemSuggestionDto> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new ItemSuggestionDto(node.top[i].itemId, node.top[i].name));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putAfterCommit(Item item) {
+        Long itemId = item.getId();
+        String name = item.getName();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(itemId, name, available);
+                }
+            });
+        } else {
+            put(itemId, name, available);
+        }
+    }
+
+    //new bookings arrive through the outbox, so the ranking follows demand without touching the database
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() != BookingEventType.CREATED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!countedBookings.add(event.getBookingId())) {
+                return;
+            }
+            Suggestion suggestion = suggestions.get(event.getItemId());
+            if (suggestion == null) {
+                return;
+            }
+            suggestion.bookings++;
+            if (suggestion.indexed) {
+                recompute(path(suggestion.key));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //the new trie is built aside and swapped in, so lookups go on meanwhile; changes made during the load
+    //may be lost until the next reload
+    private int reload() {
+        Node newRoot = new Node("");
+        Map<Long, Suggestion> newSuggestions = new HashMap<>();
+        int loaded = 0;
+        long after = 0;
+        List<ItemPopularityDto> page;
+        do {
+            page = itemRepository.findPopularityEntries(after, PageRequest.of(0, loadPageSize));
+            for (ItemPopularityDto item: page) {
+                Suggestion suggestion = new Suggestion(item.getId(), item.getName(), item.getBookings());
+                suggestion.indexed = Boolean.TRUE.equals(item.getAvailable());
+                newSuggestions.put(item.getId(), suggestion);
+                if (suggestion.indexed) {
+                    insert(newRoot, suggestion, false);
+                }
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+            loaded += page.size();
+        } while (page.size() == loadPageSize);
+        //one bottom-up pass is much cheaper than refreshing the path after every insert
+        recomputeAll(newRoot);
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            suggestions = newSuggestions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loaded;
+    }
+
+    private void put(Long itemId, String name, boolean available) {
+        lock.writeLock().lock();
+        try {
+            Suggestion existing = suggestions.get(itemId);
+            if (existing != null && existing.indexed == available && existing.name.equals(name)) {
+                return;
+            }
+            if (existing != null && existing.indexed) {
+                remove(existing);
+            }
+            Suggestion suggestion = new Suggestion(itemId, name, existing == null ? 0 : existing.bookings);
+            suggestion.indexed = available;
+            suggestions.put(itemId, suggestion);
+            if (available) {
+                insert(root, suggestion, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Node trieRoot, Suggestion suggestion, boolean refreshTop) {
+        String key = suggestion.key;
+        List<Node> path = new ArrayList<>();
+        path.add(trieRoot);
+        Node node = trieRoot;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.addChild(child);
+                position = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, position);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                position += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.addTerminal(suggestion);
+        if (refreshTop) {
+            recompute(path);
+        }
+    }
+
+    private void remove(Suggestion suggestion) {
+        List<Node> path = path(suggestion.key);
+        Node node = path.get(path.size() - 1);
+        node.removeTerminal(suggestion);
+        //drops nodes left empty and folds pass-through nodes into their only child
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            if (current.terminals.length > 0) {
+                continue;
+            }
+            if (current.children.length == 0) {
+                path.get(i - 1).removeChild(current.label.charAt(0));
+            } else if (current.children.length == 1) {
+                current.absorbOnlyChild();
+            }
+        }
+        recompute(path);
+    }
+
+    //nodes from the root down to the node where the key ends
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            node = node.child(key.charAt(position));
+            position += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.addChild(child);
+        middle.top = child.top;
+        parent.replaceChild(middle);
+        return middle;
+    }
+
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).recomputeTop(topK);
+        }
+    }
+
+    private void recomputeAll(Node node) {
+        for (Node child: node.children) {
+            recomputeAll(child);
+        }
+        node.recomputeTop(topK);
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int length = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Suggestion {
+        private final long itemId;
+        private final String name;
+        private final String key;
+        private long bookings;
+        private boolean indexed;
+
+        Suggestion(long itemId, String name, long bookings) {
+            this.itemId = itemId;
+            this.name = name;
+            this.key = normalize(name);
+            this.bookings = bookings;
+        }
+    }
+
+    private static final class Node {
+        private String label;
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Suggestion[] terminals = NONE;
+        private Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int position = Arrays.binarySearch(keys, first);
+            return position < 0 ? null : children[position];
+        }
+
+        void addChild(Node child) {
+            int position = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = child.label.charAt(0);
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(keys, child.label.charAt(0))] = child;
+        }
+
+        void removeChild(char first) {
+            int position = Arrays.binarySearch(keys, first);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(keys, position + 1, newKeys, position, keys.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void absorbOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            keys = child.keys;
+            children = child.children;
+            terminals = child.terminals;
+        }
+
+        void addTerminal(Suggestion suggestion) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = suggestion;
+        }
+
+        void removeTerminal(Suggestion suggestion) {
+            Suggestion[] kept = new Suggestion[terminals.length - 1];
+            int size = 0;
+            for (Suggestion terminal: terminals) {
+                if (terminal != suggestion) {
+                    kept[size++] = terminal;
+                }
+            }
+            terminals = kept;
+        }
+
+        //the best k of a subtree are among the node's own items and the best k of each child
+        void recomputeTop(int k) {
+            Suggestion[] best = new Suggestion[k];
+            int size = 0;
+            for (Suggestion terminal: terminals) {
+                size = offer(best, size, terminal);
+            }
+            for (Node child: children) {
+                for (Suggestion candidate: child.top) {
+                    if (size == k && RANK.compare(candidate, best[k - 1]) >= 0) {
+                        break;
+                    }
+                    size = offer(best, size, candidate);
+                }
+            }
+            top = size == 0 ? NONE : Arrays.copyOf(best, size);
+        }
+
+        private static int offer(Suggestion[] best, int size, Suggestion candidate) {
+            int position = size;
+            while (position > 0 && RANK.compare(candidate, best[position - 1]) < 0) {
+                position--;
+            }
+            if (position == best.length) {
+                return size;
+            }
+            int moved = Math.min(size, best.length - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = candidate;
+            return Math.min(size + 1, best.length);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.stats.dto.SearchStatsDto;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+//pages of search results; an item change drops only the queries the item could match before or after it
+@Component
+public class ItemSearchCache {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final LinkedHashMap<Key, Entry> entries;
+    //bumped by every invalidation, so a page loaded before a commit is not stored after it
+    private long version;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    public ItemSearchCache(@Value("${shareit.items.search.cache.max-entries:1000}") int maxEntries,
+                           @Value("${shareit.items.search.cache.ttl:PT5M}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ItemSearchCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<ItemDto> get(String text, Pageable pageable, Supplier<List<ItemDto>> loader) {
+        Key key = new Key(normalize(text), pageable.getOffset(), pageable.getPageSize());
+        long now = System.nanoTime();
+        long loadedVersion;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < ttl.toNanos()) {
+                hits++;
+                return entry.items;
+            }
+            misses++;
+            loadedVersion = version;
+        }
+        List<ItemDto> items = List.copyOf(loader.get());
+        synchronized (this) {
+            if (version == loadedVersion) {
+                entries.put(key, new Entry(items, now));
+            }
+        }
+        return items;
+    }
+
+    //before is the item as it was read, null for a new item; after is the item about to be committed
+    public void invalidateAfterCommit(ItemDto before, Item after) {
+        List<String> texts = new ArrayList<>(4);
+        if (before != null && Boolean.TRUE.equals(before.getAvailable())) {
+            texts.add(normalize(before.getName()));
+            texts.add(normalize(before.getDescription()));
+        }
+        if (Boolean.TRUE.equals(after.getAvailable())) {
+            texts.add(normalize(after.getName()));
+            texts.add(normalize(after.getDescription()));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(texts);
+                }
+            });
+        } else {
+            evict(texts);
+        }
+    }
+
+    public synchronized SearchStatsDto getStats() {
+        long requests = hits + misses;
+        return new SearchStatsDto(hits, misses, invalidations, evictions, entries.size(),
+                requests == 0 ? 0 : hits * 100f / requests, null);
+    }
+
+    private synchronized void evict(List<String> texts) {
+        version++;
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            if (mayMatch(key.text, texts)) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    //a superset of what every search engine matches: the postgres one also finds single words of the query,
+    //and a query with a minus may exclude words, so it is dropped on any change
+    private static boolean mayMatch(String query, List<String> texts) {
+        if (texts.isEmpty()) {
+            return false;
+        }
+        if (query.indexOf('-') >= 0) {
+            return true;
+        }
+        for (String text: texts) {
+            if (text.contains(query)) {
+                return true;
+            }
+            for (String word: SEPARATORS.split(query)) {
+                if (!word.isEmpty() && text.contains(word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //only case is folded: spaces and punctuation are part of a substring search
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Key {
+        private final String text;
+        private final long offset;
+        private final int size;
+
+        Key(String text, long offset, int size) {
+            this.text = text;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return offset == key.offset && size == key.size && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, offset, size);
+        }
+    }
+
+    private static final class Entry {
+        private final List<ItemDto> items;
+        private final long loadedAt;
+
+        Entry(List<ItemDto> items, long loadedAt) {
+            this.items = items;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+//finds available items by text in their name or description, best matches first
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, Pageable pageable);
+
+    //engines that keep their own index pick up created and changed items here
+    default void indexAfterCommit(Item item) {
+    }
+
+    //the text goes into like patterns with '\' as the escape character, so its wildcards match literally
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+//dictionary of the words of available items for typo-tolerant search; misspelled words are resolved in a trie
+@Component
+@Slf4j
+public class ItemTermDictionary {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ItemRepository itemRepository;
+    private final int maxDistance;
+    private final int maxExpansions;
+    private final int loadPageSize;
+    //holds exactly the words of itemsByTerm: a word goes away with its last item
+    private final TermTrie terms = new TermTrie();
+    private final Map<String, Set<Long>> itemsByTerm = new HashMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemTermDictionary(ItemRepository itemRepository,
+                              @Value("${shareit.items.search.fuzzy.max-distance:2}") int maxDistance,
+                              @Value("${shareit.items.search.fuzzy.max-expansions:50}") int maxExpansions,
+                              @Value("${shareit.items.search.fuzzy.load-page-size:10000}") int loadPageSize) {
+        this.itemRepository = itemRepository;
+        this.maxDistance = maxDistance;
+        this.maxExpansions = maxExpansions;
+        this.loadPageSize = loadPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int loaded = 0;
+        long after = 0;
+        List<ItemDto> page;
+        do {
+            page = itemRepository.findSearchEntries(after, PageRequest.of(0, loadPageSize));
+            for (ItemDto item: page) {
+                index(item.getId(), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+            loaded += page.size();
+        } while (page.size() == loadPageSize);
+        log.info("Словарь нечеткого поиска построен: {} вещей, {} слов.", loaded, size());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //every word of the query has to match a word of the item; closer matches come first
+    public List<Item> search(String text, Pageable pageable) {
+        List<String> tokens = new ArrayList<>(tokenize(text));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> distances = null;
+        lock.readLock().lock();
+        try {
+            for (String token: tokens) {
+                Map<Long, Integer> matched = match(token, distances);
+                distances = distances == null ? matched : merge(distances, matched);
+                if (distances.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(distances.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> page = new ArrayList<>(pageable.getPageSize());
+        for (long i = pageable.getOffset(); i < ranked.size() && page.size() < pageable.getPageSize(); i++) {
+            page.add(ranked.get((int) i).getKey());
+        }
+        Map<Long, Item> items = itemRepository.findAllById(page).stream()
+                .collect(toMap(Item::getId, identity()));
+        List<Item> result = new ArrayList<>(page.size());
+        for (Long itemId: page) {
+            Item item = items.get(itemId);
+            if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public void indexAfterCommit(Item item) {
+        Long itemId = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(itemId, name, description, available);
+                }
+            });
+        } else {
+            index(itemId, name, description, available);
+        }
+    }
+
+    private void index(Long itemId, String name, String description, boolean available) {
+        Set<String> words = new HashSet<>();
+        if (available) {
+            words.addAll(tokenize(name));
+            words.addAll(tokenize(description));
+        }
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = termsByItem.remove(itemId);
+            if (previous != null) {
+                for (String word: previous) {
+                    Set<Long> items = itemsByTerm.get(word);
+                    items.remove(itemId);
+                    if (items.isEmpty()) {
+                        itemsByTerm.remove(word);
+                        terms.remove(word);
+                    }
+                }
+            }
+            if (words.isEmpty()) {
+                return;
+            }
+            termsByItem.put(itemId, words);
+            for (String word: words) {
+                itemsByTerm.computeIfAbsent(word, key -> {
+                    terms.add(key);
+                    return new HashSet<>();
+                }).add(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //items having a word close to the token, with the distance of the closest such word
+    private Map<Long, Integer> match(String token, Map<Long, Integer> candidates) {
+        List<Map.Entry<String, Integer>> words = new ArrayList<>();
+        terms.search(token, allowedDistance(token), (word, distance) -> words.add(Map.entry(word, distance)));
+        //keeps the lookup bounded for short tokens that are close to many words
+        words.sort(Map.Entry.comparingByValue());
+        Map<Long, Integer> matched = new HashMap<>();
+        for (Map.Entry<String, Integer> word: words.subList(0, Math.min(words.size(), maxExpansions))) {
+            for (Long itemId: itemsByTerm.get(word.getKey())) {
+                if (candidates == null || candidates.containsKey(itemId)) {
+                    matched.merge(itemId, word.getValue(), Math::min);
+                }
+            }
+        }
+        return matched;
+    }
+
+    //short words tolerate fewer typos, otherwise almost any two-letter word would match
+    private int allowedDistance(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return Math.min(token.length() == 3 ? 1 : 2, maxDistance);
+    }
+
+    private static Map<Long, Integer> merge(Map<Long, Integer> distances, Map<Long, Integer> matched) {
+        Map<Long, Integer> merged = new HashMap<>();
+        matched.forEach((itemId, distance) -> merged.put(itemId, distances.get(itemId) + distance));
+        return merged;
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token: SEPARATORS.split(text.toUpperCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,336 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+//trigram inverted index in memory: a query only verifies the items that contain all of its trigrams
+@Component
+@ConditionalOnProperty(name = "shareit.items.search.engine", havingValue = "ngram")
+@Slf4j
+public class NgramItemSearchEngine implements ItemSearchEngine {
+
+    static final int GRAM = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_PENDING_IDS = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final int loadPageSize;
+    private final long pendingTimeoutNanos;
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByItemId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] itemIds = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private final BitSet available = new BitSet();
+    private int docCount;
+    private int deadCount;
+    private long lastLoadedId;
+    //ids below lastLoadedId not seen yet with the time they were skipped: identity ids are taken at insert,
+    //so an insert committing later than one with a greater id is missing from the page that passed it
+    private final Map<Long, Long> pendingIds = new HashMap<>();
+
+    public NgramItemSearchEngine(ItemRepository itemRepository,
+                                 @Value("${shareit.items.search.ngram.load-page-size:10000}") int loadPageSize,
+                                 @Value("${shareit.items.search.ngram.pending-millis:600000}") long pendingMillis) {
+        this.itemRepository = itemRepository;
+        this.loadPageSize = loadPageSize;
+        this.pendingTimeoutNanos = pendingMillis * 1_000_000;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int loaded = loadNew();
+        lock.readLock().lock();
+        try {
+            log.info("Индекс поиска вещей построен: {} вещей, {} n-грамм, ~{} байт на вещь.", loaded,
+                    postings.size(), docCount == 0 ? 0 : estimateBytes() / docCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //picks up items created by other server instances
+    @Scheduled(fixedDelayString = "${shareit.items.search.ngram.catch-up-millis:60000}")
+    public void catchUp() {
+        int loaded = loadPending() + loadNew();
+        if (loaded > 0) {
+            log.info("В индекс поиска добавлено {} новых вещей.", loaded);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = normalize(text);
+        long[] hits = new long[16];
+        int hitCount = 0;
+        lock.readLock().lock();
+        try {
+            List<IntPostingList> lists = postingLists(query);
+            if (lists != null && lists.isEmpty()) {
+                return List.of();
+            }
+            //document numbers follow the order of indexing, so every match is collected and sorted by item id
+            IntPostingList shortest = lists == null ? null : lists.get(0);
+            int count = shortest == null ? docCount : shortest.size();
+            for (int i = 0; i < count; i++) {
+                int doc = shortest == null ? i : shortest.get(i);
+                if (!matches(doc, query, lists)) {
+                    continue;
+                }
+                if (hitCount == hits.length) {
+                    hits = Arrays.copyOf(hits, hitCount * 2);
+                }
+                hits[hitCount++] = itemIds[doc];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(hits, 0, hitCount);
+        List<Long> page = new ArrayList<>(pageable.getPageSize());
+        for (long i = pageable.getOffset(); i < hitCount && page.size() < pageable.getPageSize(); i++) {
+            page.add(hits[(int) i]);
+        }
+        Map<Long, Item> items = itemRepository.findAllById(page).stream()
+                .collect(toMap(Item::getId, identity()));
+        List<Item> result = new ArrayList<>(page.size());
+        for (Long itemId: page) {
+            Item item = items.get(itemId);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void indexAfterCommit(Item item) {
+        Long itemId = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean isAvailable = Boolean.TRUE.equals(item.getAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(itemId, name, description, isAvailable);
+                }
+            });
+        } else {
+            index(itemId, name, description, isAvailable);
+        }
+    }
+
+    //a changed item gets a new document number, the old one stays in the posting lists as a tombstone
+    void index(Long itemId, String name, String description, boolean isAvailable) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docsByItemId.get(itemId);
+            if (previous != null) {
+                names[previous] = null;
+                descriptions[previous] = null;
+                available.clear(previous);
+                deadCount++;
+            }
+            int doc = docCount++;
+            ensureCapacity();
+            itemIds[doc] = itemId;
+            names[doc] = normalize(name);
+            descriptions[doc] = normalize(description);
+            available.set(doc, isAvailable);
+            docsByItemId.put(itemId, doc);
+            addGrams(doc, names[doc]);
+            addGrams(doc, descriptions[doc]);
+            if (deadCount > docCount / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //rough heap footprint of the index: posting arrays, texts and per-item bookkeeping
+    long estimateBytes() {
+        long bytes = 0;
+        for (IntPostingList list: postings.values()) {
+            bytes += 16L + 4L * list.capacity() + 32 + 48;
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            if (names[doc] != null) {
+                bytes += 2L * (names[doc].length() + descriptions[doc].length()) + 2 * 40;
+            }
+        }
+        bytes += (8L + 8 + 8) * itemIds.length + 48L * docsByItemId.size();
+        return bytes;
+    }
+
+    private synchronized int loadNew() {
+        int loaded = 0;
+        List<ItemDto> page;
+        do {
+            long after;
+            lock.readLock().lock();
+            try {
+                after = lastLoadedId;
+            } finally {
+                lock.readLock().unlock();
+            }
+            page = itemRepository.findSearchEntries(after, PageRequest.of(0, loadPageSize));
+            long previous = after;
+            for (ItemDto item: page) {
+                for (long id = previous + 1; id < item.getId() && pendingIds.size() < MAX_PENDING_IDS; id++) {
+                    pendingIds.putIfAbsent(id, System.nanoTime());
+                }
+                previous = item.getId();
+                if (indexIfAbsent(item)) {
+                    loaded++;
+                }
+            }
+            if (!page.isEmpty()) {
+                setLastLoadedId(page.get(page.size() - 1).getId());
+            }
+        } while (page.size() == loadPageSize);
+        return loaded;
+    }
+
+    //an id never shows up when its insert rolled back, so it is given up after the timeout
+    private synchronized int loadPending() {
+        long now = System.nanoTime();
+        pendingIds.values().removeIf(skippedAt -> now - skippedAt > pendingTimeoutNanos);
+        List<Long> ids = new ArrayList<>(pendingIds.keySet());
+        int loaded = 0;
+        for (int from = 0; from < ids.size(); from += loadPageSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + loadPageSize));
+            for (ItemDto item: itemRepository.findSearchEntriesByIdIn(chunk)) {
+                pendingIds.remove(item.getId());
+                if (indexIfAbsent(item)) {
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    //items indexed after a commit on this instance are already there and would only leave a tombstone
+    private boolean indexIfAbsent(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            if (docsByItemId.containsKey(item.getId())) {
+                return false;
+            }
+            index(item.getId(), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setLastLoadedId(long itemId) {
+        lock.writeLock().lock();
+        try {
+            lastLoadedId = Math.max(lastLoadedId, itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //null when the query is too short for trigrams, empty when some trigram occurs nowhere
+    private List<IntPostingList> postingLists(String query) {
+        if (query.length() < GRAM) {
+            return null;
+        }
+        List<IntPostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            IntPostingList list = postings.get(gram(query, i));
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        return lists;
+    }
+
+    //trigrams only narrow the candidates, the substring check decides
+    private boolean matches(int doc, String query, List<IntPostingList> lists) {
+        if (!available.get(doc)) {
+            return false;
+        }
+        if (lists != null) {
+            for (int l = 1; l < lists.size(); l++) {
+                if (!lists.get(l).contains(doc)) {
+                    return false;
+                }
+            }
+        }
+        return names[doc].contains(query) || descriptions[doc].contains(query);
+    }
+
+    //renumbers the live documents and rebuilds the posting lists without tombstones
+    private void compact() {
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (names[doc] == null) {
+                continue;
+            }
+            itemIds[live] = itemIds[doc];
+            names[live] = names[doc];
+            descriptions[live] = descriptions[doc];
+            available.set(live, available.get(doc));
+            docsByItemId.put(itemIds[live], live);
+            live++;
+        }
+        Arrays.fill(names, live, docCount, null);
+        Arrays.fill(descriptions, live, docCount, null);
+        available.clear(live, docCount);
+        docCount = live;
+        deadCount = 0;
+        postings.clear();
+        for (int doc = 0; doc < docCount; doc++) {
+            addGrams(doc, names[doc]);
+            addGrams(doc, descriptions[doc]);
+        }
+    }
+
+    private void addGrams(int doc, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            postings.computeIfAbsent(gram(text, i), key -> new IntPostingList()).add(doc);
+        }
+    }
+
+    private void ensureCapacity() {
+        if (docCount > itemIds.length) {
+            int capacity = itemIds.length * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+    }
+
+    private static long gram(String text, int from) {
+        return (long) text.charAt(from) << 32 | (long) text.charAt(from + 1) << 16 | text.charAt(from + 2);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+//full-text and trigram search over the partial indexes from schema-postgresql.sql
+@Component
+@ConditionalOnProperty(name = "shareit.items.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.searchRanked(text, ItemSearchEngine.escapeLike(text), pageable);
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.stats.dto.QueryCountDto;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+//count-min sketch of search queries with the most frequent ones kept aside; they are saved to warm the cache
+//after a restart
+@Component
+@Slf4j
+public class SearchQuerySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_TEXT_LENGTH = 250;
+    private static final String UPSERT_POSTGRES = "INSERT INTO search_queries (query_text, hits) VALUES (?, ?) " +
+            "ON CONFLICT (query_text) DO UPDATE SET hits = search_queries.hits + EXCLUDED.hits";
+    private static final String UPSERT = "MERGE INTO search_queries s " +
+            "USING (VALUES (CAST(? AS VARCHAR(250)), CAST(? AS BIGINT))) q (query_text, hits) " +
+            "ON s.query_text = q.query_text " +
+            "WHEN MATCHED THEN UPDATE SET hits = s.hits + q.hits " +
+            "WHEN NOT MATCHED THEN INSERT (query_text, hits) VALUES (q.query_text, q.hits)";
+    //ties with the last kept count stay, so the table can hold a few more than maxSaved rows
+    private static final String PRUNE = "DELETE FROM search_queries WHERE hits < " +
+            "(SELECT MIN(hits) FROM (SELECT hits FROM search_queries ORDER BY hits DESC LIMIT ?) kept)";
+
+    private final SearchQueryStatRepository searchQueryStatRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+    private final int topK;
+    private final int maxSaved;
+    private final long[][] counters;
+    private final Map<String, Long> heavyHitters = new HashMap<>();
+    //estimates already in the table, so a flush only adds what was searched since the previous one
+    private final Map<String, Long> saved = new HashMap<>();
+
+    public SearchQuerySketch(SearchQueryStatRepository searchQueryStatRepository, JdbcTemplate jdbcTemplate,
+                             DatabaseDialect databaseDialect,
+                             @Value("${shareit.items.search.sketch.width:4096}") int width,
+                             @Value("${shareit.items.search.sketch.top-k:20}") int topK,
+                             @Value("${shareit.items.search.sketch.max-saved:200}") int maxSaved) {
+        this.searchQueryStatRepository = searchQueryStatRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+        this.topK = topK;
+        this.maxSaved = maxSaved;
+        this.counters = new long[DEPTH][width];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<SearchQueryStat> stats = searchQueryStatRepository.findAll();
+        for (SearchQueryStat stat: stats) {
+            add(stat.getText(), stat.getHits());
+        }
+        markSaved();
+        log.info("Загружена статистика поисковых запросов: {}.", stats.size());
+    }
+
+    public void record(String text) {
+        add(text.toUpperCase(Locale.ROOT), 1);
+    }
+
+    public synchronized List<QueryCountDto> getTop() {
+        return heavyHitters.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> new QueryCountDto(entry.getKey(), entry.getValue()))
+                .collect(toList());
+    }
+
+    //adds the leaders' growth to the counts every instance shares, then halves the local counters,
+    //so the local ranking follows recent traffic; the table keeps the totals and only its best rows
+    @Scheduled(fixedDelayString = "${shareit.items.search.sketch.flush-millis:300000}")
+    @Transactional
+    public void flush() {
+        List<Object[]> increments = takeIncrements();
+        if (!increments.isEmpty()) {
+            jdbcTemplate.batchUpdate(databaseDialect.isPostgres() ? UPSERT_POSTGRES : UPSERT, increments);
+            jdbcTemplate.update(PRUNE, maxSaved);
+        }
+    }
+
+    //decays in the same step, so a search recorded meanwhile counts towards the next flush
+    private synchronized List<Object[]> takeIncrements() {
+        List<Object[]> increments = heavyHitters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .filter(entry -> entry.getValue() > saved.getOrDefault(entry.getKey(), 0L))
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue() - saved.getOrDefault(entry.getKey(), 0L)})
+                .collect(toList());
+        decay();
+        markSaved();
+        return increments;
+    }
+
+    private synchronized void markSaved() {
+        saved.clear();
+        saved.putAll(heavyHitters);
+    }
+
+    private synchronized void add(String text, long count) {
+        if (text.length() > MAX_TEXT_LENGTH) {
+            return;
+        }
+        int first = text.hashCode();
+        int second = fnv(text);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int column = Math.floorMod(first + row * second, counters[row].length);
+            counters[row][column] += count;
+            estimate = Math.min(estimate, counters[row][column]);
+        }
+        if (heavyHitters.containsKey(text) || heavyHitters.size() < topK) {
+            heavyHitters.put(text, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = Collections.min(heavyHitters.entrySet(), Map.Entry.comparingByValue());
+        if (estimate > weakest.getValue()) {
+            heavyHitters.remove(weakest.getKey());
+            heavyHitters.put(text, estimate);
+        }
+    }
+
+    private synchronized void decay() {
+        for (long[] row: counters) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] >>= 1;
+            }
+        }
+        heavyHitters.replaceAll((text, count) -> count >> 1);
+        heavyHitters.values().removeIf(count -> count == 0);
+    }
+
+    //rows are indexed by combinations of two independent hashes instead of one hash per row
+    private static int fnv(String text) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x01000193;
+        }
+        return hash | 1;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "search_queries", schema = "public")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchQueryStat {
+    @Id
+    @Column(name = "query_text")
+    private String text;
+    @Column(name = "hits")
+    private Long hits;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SearchQueryStatRepository extends JpaRepository<SearchQueryStat, String> {
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+//trie of words walked like a levenshtein automaton: a branch is dropped as soon as every edit costs too much
+final class TermTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    //returns false when the term is already in the trie
+    boolean add(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.childOrCreate(term.charAt(i));
+        }
+        if (node.terminal) {
+            return false;
+        }
+        node.terminal = true;
+        size++;
+        return true;
+    }
+
+    //returns false when the term is not in the trie; branches left without words are cut off
+    boolean remove(String term) {
+        Node[] path = new Node[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        Node node = path[term.length()];
+        if (!node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        size--;
+        for (int i = term.length(); i > 0 && !path[i].terminal && path[i].keys.length == 0; i--) {
+            path[i - 1].removeChild(term.charAt(i - 1));
+        }
+        return true;
+    }
+
+    void search(String term, int maxDistance, ObjIntConsumer<String> consumer) {
+        int[] row = new int[term.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < root.keys.length; i++) {
+            walk(root.children[i], root.keys[i], term, row, maxDistance, prefix, consumer);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    //one row of the edit distance table per trie level, shared by every word below the node
+    private static void walk(Node node, char letter, String term, int[] previous, int maxDistance,
+                             StringBuilder prefix, ObjIntConsumer<String> consumer) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int best = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int cost = term.charAt(j - 1) == letter ? 0 : 1;
+            row[j] = Math.min(Math.min(row[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+            best = Math.min(best, row[j]);
+        }
+        if (best > maxDistance) {
+            return;
+        }
+        prefix.append(letter);
+        if (node.terminal && row[row.length - 1] <= maxDistance) {
+            consumer.accept(prefix.toString(), row[row.length - 1]);
+        }
+        for (int i = 0; i < node.keys.length; i++) {
+            walk(node.children[i], node.keys[i], term, row, maxDistance, prefix, consumer);
+        }
+        prefix.setLength(prefix.length() - 1);
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private boolean terminal;
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(keys, position + 1, newKeys, position, keys.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        Node childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = key;
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
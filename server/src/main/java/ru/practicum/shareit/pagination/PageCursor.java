@@ -0,0 +1,105 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final PageCursor FIRST_PAGE = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime time;
+    private final Long id;
+
+    public static String encode(LocalDateTime time, Long id) {
+        return encode(time + SEPARATOR + id);
+    }
+
+    public static String encode(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static PageCursor decode(String after) {
+        if (after == null) {
+            return FIRST_PAGE;
+        }
+        String[] parts = decodeToken(after).split("\\" + SEPARATOR);
+        if (parts.length != 2) {
+            throw new ValidationException("Неверный курсор страницы.");
+        }
+        try {
+            return new PageCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Неверный курсор страницы.");
+        }
+    }
+
+    public static Long decodeId(String after) {
+        if (after == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodeToken(after));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Неверный курсор страницы.");
+        }
+    }
+
+    //for orders without a stable key the cursor carries the offset of the next page instead
+    public static int offset(String after, Integer from) {
+        if (after == null) {
+            return from;
+        }
+        Long offset = decodeId(after);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new ValidationException("Неверный курсор страницы.");
+        }
+        return offset.intValue();
+    }
+
+    public static Pageable pageable(String after, Integer from, Integer size, Sort sort) {
+        if (after == null) {
+            return PageRequest.of(from / size, size, sort);
+        }
+        return PageRequest.of(0, size, sort);
+    }
+
+    public static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, Integer size,
+                                                             Function<T, String> cursorOf) {
+        if (page.isEmpty() || page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)))
+                .body(page);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeToken(String after) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неверный курсор страницы.");
+        }
+    }
+}
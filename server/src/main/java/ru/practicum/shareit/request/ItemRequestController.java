@@ -2,7 +2,9 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInc;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 
@@ -32,12 +34,14 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoOut> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "10") Integer size) {
-        List<ItemRequestDtoOut> response = itemRequestService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemRequestDtoOut>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String after) {
+        List<ItemRequestDtoOut> response = itemRequestService.getAll(userId, from, size, after);
         log.info("Выведен список запросов.");
-        return response;
+        return PageCursor.withNextCursor(response, size, request -> PageCursor.encode(request.getCreated(),
+                request.getId()));
     }
 
     @GetMapping("/{requestId}")
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -18,7 +19,7 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> findAllWithoutUser(Long userId, Sort sort);
 
     @Query(value = "select i from ItemRequest i " +
-            "where i.requestor.id <> ?1 " +
-            "group by i.id")
-    List<ItemRequest> findAllPageable(Long userId, Pageable pageable);
+            "where i.requestor.id <> ?1 and " +
+            "i.created <= ?2 and (i.created < ?2 or i.id < ?3)")
+    List<ItemRequest> findAllPageable(Long userId, LocalDateTime afterCreated, Long afterId, Pageable pageable);
 }
@@ -1,14 +1,15 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInc;
@@ -29,6 +30,7 @@ public class ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final UserIdIndex userIdIndex;
 
     @Transactional
     public ItemRequestDtoOut create(Long userId, ItemRequestDtoInc itemRequestDtoInc) {
@@ -40,8 +42,7 @@ public class ItemRequestService {
     }
 
     public List<ItemRequestDtoOut> getOwn(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
+        if (!userIdIndex.contains(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
         List<ItemRequest> requests = itemRequestRepository.findByRequestor_IdOrderByCreatedDesc(userId);
         List<Long> requestIds = requests.stream()
                 .map(ItemRequest::getId)
@@ -51,12 +52,12 @@ public class ItemRequestService {
         return ItemRequestMapper.mapRequestsToOutcomingRequests(requests, responses);
     }
 
-    public List<ItemRequestDtoOut> getAll(Long userId, Integer from, Integer size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
+    public List<ItemRequestDtoOut> getAll(Long userId, Integer from, Integer size, String after) {
+        if (!userIdIndex.contains(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
         List<ItemRequest> requests;
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(DESC, "created"));
-        requests = itemRequestRepository.findAllPageable(userId, pageable);
+        PageCursor cursor = PageCursor.decode(after);
+        Pageable pageable = PageCursor.pageable(after, from, size, Sort.by(DESC, "created", "id"));
+        requests = itemRequestRepository.findAllPageable(userId, cursor.getTime(), cursor.getId(), pageable);
         List<Long> requestIds = requests.stream()
                 .map(ItemRequest::getId)
                 .collect(toList());
@@ -66,8 +67,7 @@ public class ItemRequestService {
     }
 
     public ItemRequestDtoOut getById(Long userId, Long requestId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Неверный ID пользователя."));
+        if (!userIdIndex.contains(userId)) throw new UserNotFoundException("Неверный ID пользователя.");
         ItemRequest request = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new EntityNotFoundException("Неверный ID запроса."));
         List<Item> items = itemRepository.findByRequestOrderByIdDesc(requestId);
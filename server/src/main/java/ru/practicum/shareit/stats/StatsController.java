@@ -0,0 +1,50 @@
+package ru.practicum.shareit.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.cache.SecondLevelCacheStats;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.SearchQuerySketch;
+import ru.practicum.shareit.stats.dto.CacheRegionStatsDto;
+import ru.practicum.shareit.stats.dto.ItemViewCacheStatsDto;
+import ru.practicum.shareit.stats.dto.SearchStatsDto;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/stats")
+@RequiredArgsConstructor
+@Slf4j
+public class StatsController {
+
+    private final SecondLevelCacheStats secondLevelCacheStats;
+    private final ItemSearchCache itemSearchCache;
+    private final SearchQuerySketch searchQuerySketch;
+    private final ItemViewCache itemViewCache;
+
+    @GetMapping("/cache")
+    public List<CacheRegionStatsDto> getCacheStats() {
+        List<CacheRegionStatsDto> response = secondLevelCacheStats.get();
+        log.info("Выведена статистика кэша второго уровня.");
+        return response;
+    }
+
+    @GetMapping("/search")
+    public SearchStatsDto getSearchStats() {
+        SearchStatsDto response = itemSearchCache.getStats();
+        response.setTopQueries(searchQuerySketch.getTop());
+        log.info("Выведена статистика поиска вещей.");
+        return response;
+    }
+
+    @GetMapping("/items")
+    public ItemViewCacheStatsDto getItemViewStats() {
+        ItemViewCacheStatsDto response = itemViewCache.getStats();
+        log.info("Выведена статистика кэша просмотров вещей.");
+        return response;
+    }
+}
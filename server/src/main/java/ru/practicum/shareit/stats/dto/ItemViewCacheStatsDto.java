@@ -0,0 +1,19 @@
+package ru.practicum.shareit.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ItemViewCacheStatsDto {
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long invalidations;
+    private long evictions;
+    private int size;
+    private long estimatedBytes;
+    private float hitPercentage;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class QueryCountDto {
+    private String text;
+    private long estimatedCount;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SearchStatsDto {
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+    private int size;
+    private float hitPercentage;
+    private List<QueryCountDto> topQueries;
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.user;
+
+import java.util.Arrays;
+
+//open addressing set of primitive longs: no boxing and one flat array, 0 marks an empty slot
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == value) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            return added;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        for (; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return false;
+            }
+        }
+        slots[i] = value;
+        //keeps the load factor at or below 1/2 so probe chains stay short
+        if (++size > slots.length >> 1) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean removed = containsEmpty;
+            containsEmpty = false;
+            return removed;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        for (; slots[i] != value; i = (i + 1) & mask) {
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+        }
+        //backward shift instead of tombstones: moves later entries of the chain into the hole
+        for (int next = (i + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+            int home = index(slots[next], mask);
+            if (((next - home) & mask) >= ((next - i) & mask)) {
+                slots[i] = slots[next];
+                i = next;
+            }
+        }
+        slots[i] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size + (containsEmpty ? 1 : 0);
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+        containsEmpty = false;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value: old) {
+            if (value != EMPTY) {
+                int i = index(value, mask);
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    //ids are sequential, so the bits are mixed before masking to spread them over the table
+    private static int index(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
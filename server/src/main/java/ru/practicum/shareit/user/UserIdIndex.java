@@ -0,0 +1,149 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//ids of existing users, so permission checks don't load a user row on every request
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserIdIndex {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongHashSet ids = new LongHashSet();
+    //users removed while a reload reads the table; the page holding them may have been read before the delete
+    private List<Long> removedDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Индекс пользователей построен: {}.", reload());
+    }
+
+    //users deleted on other server instances only leave the index here, until then their ids still pass
+    @Scheduled(fixedDelayString = "${shareit.users.index.reconcile-millis:60000}",
+            initialDelayString = "${shareit.users.index.reconcile-millis:60000}")
+    public void reconcile() {
+        reload();
+    }
+
+    //a miss falls back to the database, which also picks up users created by other server instances
+    public boolean contains(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            if (ids.contains(userId)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!userRepository.existsById(userId)) {
+            return false;
+        }
+        add(userId);
+        return true;
+    }
+
+    public void addAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(userId);
+                }
+            });
+        } else {
+            add(userId);
+        }
+    }
+
+    //removed right away and once more after commit, in case a lookup re-added it in between
+    public void remove(Long userId) {
+        removeNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(userId);
+                }
+            });
+        }
+    }
+
+    //the ids are read in pages into a new set, lookups keep using the old one until it is swapped in
+    private synchronized int reload() {
+        lock.writeLock().lock();
+        try {
+            removedDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LongHashSet loaded = new LongHashSet();
+        try {
+            long after = 0;
+            List<Long> page;
+            do {
+                page = userRepository.findIdsAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                page.forEach(loaded::add);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                removedDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            removedDuringReload.forEach(loaded::remove);
+            removedDuringReload = null;
+            ids = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loaded.size();
+    }
+
+    private void add(Long userId) {
+        lock.writeLock().lock();
+        try {
+            ids.add(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeNow(Long userId) {
+        lock.writeLock().lock();
+        try {
+            ids.remove(userId);
+            if (removedDuringReload != null) {
+                removedDuringReload.add(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findByIdIn(List<Long> ids);
+
+    @Query("select u.id from User u where u.id > ?1 order by u.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
 }
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.item.ItemViewCache;
 
 import javax.validation.ValidationException;
 import java.util.List;
@@ -15,10 +16,13 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserIdIndex userIdIndex;
+    private final ItemViewCache itemViewCache;
 
     @Transactional
     public UserDto create(UserDto userDto) {
         User user = userRepository.save(UserMapper.mapToNewUser(userDto));
+        userIdIndex.addAfterCommit(user.getId());
         return UserMapper.mapToUserDto(user);
     }
 
@@ -33,6 +37,7 @@ public class UserService {
                 .orElseThrow(() -> new ValidationException("Неверный ID пользователя."));
         if (userDto.getName() != null && !userDto.getName().isBlank()) {
             user.setName(userDto.getName());
+            itemViewCache.invalidateAuthorAfterCommit(userId);
         }
         if (userDto.getEmail() != null && !userDto.getEmail().isBlank()) {
             user.setEmail(userDto.getEmail());
@@ -49,5 +54,6 @@ public class UserService {
     @Transactional
     public void deleteById(Long userId) {
         userRepository.deleteById(userId);
+        userIdIndex.remove(userId);
     }
 }
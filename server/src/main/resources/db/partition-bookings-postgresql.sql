@@ -0,0 +1,69 @@
+--one-time migration of bookings to a table partitioned by month of res_start
+--run it once with psql -v ON_ERROR_STOP=1 -f before starting instances with shareit.bookings.partitioning.enabled;
+--the instances only create the partitions of the coming months
+BEGIN;
+
+LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE bookings RENAME TO bookings_legacy;
+
+ALTER TABLE bookings_legacy RENAME CONSTRAINT PK_BOOKING TO PK_BOOKING_LEGACY;
+
+DROP INDEX IF EXISTS IDX_BOOKINGS_BOOKER_START;
+
+DROP INDEX IF EXISTS IDX_BOOKINGS_BOOKER_STATUS_START;
+
+DROP INDEX IF EXISTS IDX_BOOKINGS_ITEM_STATUS_START;
+
+DROP INDEX IF EXISTS IDX_BOOKINGS_ITEM_END;
+
+CREATE SEQUENCE bookings_partitioned_id_seq;
+
+CREATE TABLE bookings (
+    id BIGINT NOT NULL DEFAULT nextval('bookings_partitioned_id_seq'),
+    res_start TIMESTAMP NOT NULL,
+    res_end TIMESTAMP NOT NULL,
+    item BIGINT NOT NULL,
+    booker BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    CONSTRAINT PK_BOOKING PRIMARY KEY (id, res_start),
+    CONSTRAINT FK_BOOKINGS_TO_ITEMS FOREIGN KEY (item) REFERENCES items(id),
+    CONSTRAINT FK_BOOKINGS_TO_USERS FOREIGN KEY (booker) REFERENCES users(id)
+) PARTITION BY RANGE (res_start);
+
+ALTER SEQUENCE bookings_partitioned_id_seq OWNED BY bookings.id;
+
+--a partition for every month from the earliest booking to three months ahead, the default catches the rest
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN SELECT generate_series(
+            date_trunc('month', COALESCE((SELECT MIN(res_start) FROM bookings_legacy), now())),
+            date_trunc('month', now()) + INTERVAL '3 months',
+            INTERVAL '1 month')
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                'bookings_' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+    END LOOP;
+END
+$$;
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+INSERT INTO bookings (id, res_start, res_end, item, booker, status)
+SELECT id, res_start, res_end, item, booker, status FROM bookings_legacy;
+
+SELECT setval('bookings_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 1, false);
+
+DROP TABLE bookings_legacy;
+
+CREATE INDEX IDX_BOOKINGS_BOOKER_START ON bookings (booker, res_start DESC, id DESC);
+
+CREATE INDEX IDX_BOOKINGS_BOOKER_STATUS_START ON bookings (booker, status, res_start DESC, id DESC);
+
+CREATE INDEX IDX_BOOKINGS_ITEM_STATUS_START ON bookings (item, status, res_start);
+
+CREATE INDEX IDX_BOOKINGS_ITEM_END ON bookings (item, res_end);
+
+COMMIT;
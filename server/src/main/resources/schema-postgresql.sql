@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', item_name), 'A') || setweight(to_tsvector('simple', description), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_SEARCH_VECTOR ON items USING GIN (search_vector) WHERE available;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_NAME_TRGM ON items USING GIN (item_name gin_trgm_ops) WHERE available;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_DESCRIPTION_TRGM ON items USING GIN (description gin_trgm_ops) WHERE available;
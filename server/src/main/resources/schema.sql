@@ -48,4 +48,44 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT PK_COMMENT PRIMARY KEY (id),
     CONSTRAINT FK_COMMENTS_TO_ITEMS FOREIGN KEY (item) REFERENCES items(id),
     CONSTRAINT FK_COMMENTS_TO_USERS FOREIGN KEY (author) REFERENCES users(id)
-);
\ No newline at end of file
+);
+CREATE TABLE IF NOT EXISTS booking_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    booking BIGINT NOT NULL,
+    item BIGINT NOT NULL,
+    item_owner BIGINT NOT NULL,
+    booker BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created TIMESTAMP NOT NULL,
+    dispatched TIMESTAMP,
+    CONSTRAINT PK_BOOKING_EVENT PRIMARY KEY (id)
+);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking BIGINT;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking BIGINT;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_start TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_OWNER ON items (item_owner, id);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_BOOKER_START ON bookings (booker, res_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_BOOKER_STATUS_START ON bookings (booker, status, res_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_ITEM_STATUS_START ON bookings (item, status, res_start);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_ITEM_END ON bookings (item, res_end);
+
+CREATE INDEX IF NOT EXISTS IDX_COMMENTS_ITEM_CREATED ON comments (item, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_NEXT_BOOKING_START ON items (next_booking_start);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_EVENTS_PENDING ON booking_events (dispatched, id);
+
+CREATE TABLE IF NOT EXISTS search_queries (
+    query_text VARCHAR(250) NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT PK_SEARCH_QUERY PRIMARY KEY (query_text)
+);
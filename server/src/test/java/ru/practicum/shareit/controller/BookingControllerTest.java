@@ -10,11 +10,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.BookingExporter;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingBulkResult;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -24,13 +30,18 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingControllerTest {
     @Mock
     BookingService service;
+    @Mock
+    BookingExporter exporter;
     @InjectMocks
     BookingController controller;
     private final ObjectMapper mapper = new ObjectMapper();
@@ -77,6 +88,65 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.item.name", is(bookingDto.getItem().getName())));
     }
 
+    @Test
+    void createBatchTest() throws Exception {
+        BookingDtoCreate bookingDtoCreate = new BookingDtoCreate(1L,
+                LocalDateTime.of(2024, 11, 11, 11, 11, 11),
+                LocalDateTime.of(2025, 11, 11, 11, 11, 11));
+
+        when(service.createBatch(anyLong(), any()))
+                .thenReturn(List.of(new BookingBatchResult(0, bookingDto, null),
+                        new BookingBatchResult(1, null, "Неверный ID вещи.")));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(bookingDtoCreate, bookingDtoCreate)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Неверный ID вещи.")));
+    }
+
+    @Test
+    void updateStatusBulkTest() throws Exception {
+        when(service.updateStatusBulk(anyLong(), anyList(), anyString()))
+                .thenReturn(List.of(new BookingBulkResult(1L, bookingDto, null),
+                        new BookingBulkResult(2L, null, "Неверный ID бронирования.")));
+
+        mvc.perform(patch("/bookings/bulk?approved=true")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Неверный ID бронирования.")));
+    }
+
+    @Test
+    void getSummaryForItemsTest() throws Exception {
+        when(service.getSummaryForItems(anyLong()))
+                .thenReturn(new BookingSummaryDto(6L, 1L, 2L, 3L, 4L, 1L));
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(6)))
+                .andExpect(jsonPath("$.current", is(1)))
+                .andExpect(jsonPath("$.past", is(2)))
+                .andExpect(jsonPath("$.future", is(3)))
+                .andExpect(jsonPath("$.waiting", is(4)))
+                .andExpect(jsonPath("$.rejected", is(1)));
+    }
+
     @Test
     void updateStatusTest() throws Exception {
         when(service.updateStatus(anyLong(), anyLong(), anyString()))
@@ -117,7 +187,7 @@ public class BookingControllerTest {
 
     @Test
     void getAllTest() throws Exception {
-        when(service.getAll(anyLong(), any(), any(), any()))
+        when(service.getAll(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings")
@@ -136,7 +206,7 @@ public class BookingControllerTest {
 
     @Test
     void getAllForItemsTest() throws Exception {
-        when(service.getAllForItems(anyLong(), any(), any(), any()))
+        when(service.getAllForItems(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings/owner")
@@ -152,4 +222,51 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].item.id", is(bookingDto.getItem().getId()), Long.class))
                 .andExpect(jsonPath("$[0].item.name", is(bookingDto.getItem().getName())));
     }
+
+    @Test
+    void getAllWithNextCursorTest() throws Exception {
+        when(service.getAll(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings?size=1")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.encode(bookingDto.getStart(), bookingDto.getId())))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class));
+    }
+
+    @Test
+    void exportTest() throws Exception {
+        when(exporter.exportForBooker(anyLong(), anyBoolean()))
+                .thenReturn(out -> out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void exportForItemsGzipTest() throws Exception {
+        when(exporter.exportForOwner(anyLong(), eq(true)))
+                .thenReturn(out -> { });
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export?gzip=true")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
 }
@@ -13,14 +13,18 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -71,7 +75,8 @@ public class ItemControllerTest {
                         "name",
                         "author",
                         null
-                ))
+                )),
+                1L
         );
     }
 
@@ -96,7 +101,7 @@ public class ItemControllerTest {
 
     @Test
     void getAllTest() throws Exception {
-        when(service.getAll(anyLong(), any(), any()))
+        when(service.getAll(anyLong(), any(), any(), any()))
                 .thenReturn(List.of(itemDtoResponse));
 
         mvc.perform(get("/items")
@@ -179,7 +184,7 @@ public class ItemControllerTest {
 
     @Test
     void searchTest() throws Exception {
-        when(service.search(anyLong(), anyString(), any(), any()))
+        when(service.search(anyLong(), anyString(), any(), any(), any(), anyBoolean()))
                 .thenReturn(List.of(itemDto));
 
         mvc.perform(get("/items/search?text=text")
@@ -195,6 +200,40 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].requestId", is(itemDto.getRequestId()), Long.class));
     }
 
+    @Test
+    void suggestTest() throws Exception {
+        when(service.suggest(anyLong(), anyString(), anyInt()))
+                .thenReturn(List.of(new ItemSuggestionDto(1L, "Дрель")));
+
+        mvc.perform(get("/items/suggest?prefix=др&limit=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].name", is("Дрель")));
+    }
+
+    @Test
+    void getCommentsTest() throws Exception {
+        CommentDto commentDto = new CommentDto(1L, "text", "name", LocalDateTime.of(2023, 1, 1, 12, 0));
+
+        when(service.getComments(anyLong(), anyLong(), any(), any(), any()))
+                .thenReturn(List.of(commentDto));
+
+        mvc.perform(get("/items/1/comments?size=1")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.encode(commentDto.getCreated(), commentDto.getId())))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].text", is("text")));
+    }
+
     @Test
     void postTest() throws Exception {
         CommentDtoInc commentDtoInc = new CommentDtoInc("text");
@@ -215,4 +254,21 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName", is(commentDto.getAuthorName())))
                 .andExpect(jsonPath("$.created", is(commentDto.getCreated())));
     }
+
+    @Test
+    void getAvailabilityTest() throws Exception {
+        when(service.getAvailability(anyLong(), anyLong(), any(), any()))
+                .thenReturn(List.of(new AvailabilitySlotDto(LocalDateTime.of(2030, 1, 1, 10, 0, 1),
+                        LocalDateTime.of(2030, 1, 2, 10, 0, 1))));
+
+        mvc.perform(get("/items/1/availability")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "2030-01-01T10:00:01")
+                        .param("to", "2030-01-02T10:00:01")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start").exists())
+                .andExpect(jsonPath("$[0].end").exists());
+    }
 }
@@ -119,7 +119,7 @@ public class ItemRequestControllerTest {
 
     @Test
     void getAll() throws Exception {
-        when(service.getAll(anyLong(), any(), any()))
+        when(service.getAll(anyLong(), any(), any(), any()))
                 .thenReturn(List.of(itemRequestDtoOut));
 
         mvc.perform(get("/requests/all")
@@ -0,0 +1,173 @@
+package ru.practicum.shareit.integrational;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.event.BookingEventRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.groupingBy;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@Slf4j
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingApprovalConcurrencyTest {
+
+    private static final int ITEMS = 10;
+    private static final int BOOKINGS_PER_ITEM = 20;
+    private static final int THREADS = 8;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingEventRepository bookingEventRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookings() throws Exception {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@email.com");
+        userRepository.save(booker);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description");
+            item.setAvailable(true);
+            item.setOwner(owner.getId());
+            itemRepository.save(item);
+            //every booking of an item overlaps all the others, so only one of them can be approved
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                Booking booking = new Booking();
+                booking.setStart(start.plusHours(j));
+                booking.setEnd(start.plusDays(1).plusHours(j));
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                bookings.add(booking);
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        List<Long> bookingIds = new ArrayList<>();
+        bookings.forEach(booking -> bookingIds.add(booking.getId()));
+        Collections.shuffle(bookingIds);
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long bookingId: bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.updateStatus(owner.getId(), bookingId, "true");
+                    approved.incrementAndGet();
+                } catch (ValidationException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        ready.countDown();
+        for (Future<?> future: futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        log.info("{} решений о подтверждении за {} мс ({} в секунду).", bookingIds.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), bookingIds.size() * 1_000_000_000L / Math.max(elapsed, 1));
+
+        assertThat(approved.get(), equalTo(ITEMS));
+        assertThat(refused.get(), equalTo(ITEMS * (BOOKINGS_PER_ITEM - 1)));
+        bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(groupingBy(booking -> booking.getItem().getId()))
+                .values()
+                .forEach(itemApproved -> assertThat(itemApproved.size(), equalTo(1)));
+    }
+
+    @Test
+    void concurrentCreatesOfTheSameSlot() throws Exception {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@email.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            BookingDtoCreate bookingDtoCreate = new BookingDtoCreate(item.getId(), start.plusHours(i % 3),
+                    start.plusDays(1));
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.create(booker.getId(), bookingDtoCreate);
+                    created.incrementAndGet();
+                } catch (ValidationException e) {
+                    //the slot was taken by another thread
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future: futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(created.get(), equalTo(1));
+        assertThat(bookingRepository.count(), equalTo(1L));
+    }
+}
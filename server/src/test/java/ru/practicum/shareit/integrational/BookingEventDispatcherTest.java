@@ -0,0 +1,79 @@
+package ru.practicum.shareit.integrational;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventDispatcher;
+import ru.practicum.shareit.booking.event.BookingEventRepository;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@Transactional
+@RecordApplicationEvents
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingEventDispatcherTest {
+
+    private final EntityManager em;
+    private final BookingService bookingService;
+    private final BookingEventDispatcher dispatcher;
+    private final BookingEventRepository bookingEventRepository;
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void dispatchLifecycleEvents() {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        em.persist(owner);
+        User booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@email.com");
+        em.persist(booker);
+        Item item = new Item();
+        item.setName("name");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        em.persist(item);
+        em.flush();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        BookingDtoResponse booking = bookingService.create(booker.getId(),
+                new BookingDtoCreate(item.getId(), start, start.plusDays(1)));
+        bookingService.updateStatus(owner.getId(), booking.getId(), "true");
+        dispatcher.dispatch();
+
+        List<BookingEvent> events = applicationEvents.stream(BookingEvent.class).collect(toList());
+        assertThat(events, hasSize(2));
+        assertThat(events.get(0).getType(), equalTo(BookingEventType.CREATED));
+        assertThat(events.get(0).getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(events.get(0).getOwnerId(), equalTo(owner.getId()));
+        assertThat(events.get(1).getType(), equalTo(BookingEventType.APPROVED));
+        assertThat(events.get(1).getBookingId(), equalTo(booking.getId()));
+        em.clear();
+        assertThat(bookingEventRepository.findPending(PageRequest.of(0, 10)), empty());
+    }
+}
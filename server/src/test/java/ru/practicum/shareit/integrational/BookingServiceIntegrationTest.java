@@ -0,0 +1,178 @@
+package ru.practicum.shareit.integrational;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingBulkResult;
+import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@Transactional
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingServiceIntegrationTest {
+
+    private final EntityManager em;
+    private final BookingService bookingService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        em.persist(owner);
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@email.com");
+        em.persist(booker);
+        item = new Item();
+        item.setName("name");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        em.persist(item);
+        em.flush();
+    }
+
+    @Test
+    void create() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        BookingDtoResponse response = bookingService.create(booker.getId(),
+                new BookingDtoCreate(item.getId(), start, start.plusDays(1)));
+
+        Booking booking = em.find(Booking.class, response.getId());
+        assertThat(booking.getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(booking.getStart(), equalTo(start));
+        assertThat(booking.getBooker().getId(), equalTo(booker.getId()));
+        assertThat(response.getBooker().getName(), equalTo(booker.getName()));
+        assertThat(response.getItem().getName(), equalTo(item.getName()));
+    }
+
+    @Test
+    void createRefused() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDtoCreate bookingDtoCreate = new BookingDtoCreate(item.getId(), start, start.plusDays(1));
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+                .isThrownBy(() -> bookingService.create(-1L, bookingDtoCreate));
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> bookingService.create(owner.getId(), bookingDtoCreate))
+                .withMessage("Невозможно забронировать свою вещь.");
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> bookingService.create(booker.getId(),
+                        new BookingDtoCreate(-1L, start, start.plusDays(1))))
+                .withMessage("Неверный ID вещи.");
+        item.setAvailable(false);
+        em.flush();
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> bookingService.create(booker.getId(), bookingDtoCreate))
+                .withMessage("На данный момент вещь недоступна для бронирования.");
+    }
+
+    @Test
+    void createBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingDtoCreate> bookingDtoCreates = List.of(
+                new BookingDtoCreate(item.getId(), start, start.plusDays(1)),
+                new BookingDtoCreate(item.getId(), start.plusDays(2), start.plusDays(3)),
+                new BookingDtoCreate(item.getId(), start.plusDays(4), start.plusDays(5)));
+
+        List<BookingBatchResult> response = bookingService.createBatch(booker.getId(), bookingDtoCreates);
+
+        assertThat(response, hasSize(3));
+        for (BookingBatchResult result : response) {
+            assertThat(result.getError(), nullValue());
+            Booking booking = em.find(Booking.class, result.getBooking().getId());
+            assertThat(booking, notNullValue());
+            assertThat(booking.getStart(), equalTo(result.getBooking().getStart()));
+            assertThat(booking.getBooker().getId(), equalTo(booker.getId()));
+        }
+        List<BookingEvent> events = em.createQuery("select e from BookingEvent e where e.bookerId = :booker " +
+                        "order by e.bookingId", BookingEvent.class)
+                .setParameter("booker", booker.getId())
+                .getResultList();
+        assertThat(events, hasSize(3));
+        for (int i = 0; i < events.size(); i++) {
+            assertThat(events.get(i).getBookingId(), equalTo(response.get(i).getBooking().getId()));
+            assertThat(events.get(i).getOwnerId(), equalTo(owner.getId()));
+            assertThat(events.get(i).getType(), equalTo(BookingEventType.CREATED));
+            assertThat(events.get(i).getStatus(), equalTo(BookingStatus.WAITING));
+        }
+    }
+
+    @Test
+    void updateStatusBulk() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = waitingBooking(item, start, start.plusDays(2));
+        Booking overlapping = waitingBooking(item, start.plusDays(1), start.plusDays(3));
+        Item otherItem = new Item();
+        otherItem.setName("other");
+        otherItem.setDescription("description");
+        otherItem.setAvailable(true);
+        otherItem.setOwner(booker.getId());
+        em.persist(otherItem);
+        Booking foreign = waitingBooking(otherItem, start, start.plusDays(1));
+        em.flush();
+
+        List<BookingBulkResult> response = bookingService.updateStatusBulk(owner.getId(),
+                List.of(first.getId(), overlapping.getId(), foreign.getId(), -1L, first.getId()), "true");
+
+        assertThat(response, hasSize(4));
+        assertThat(response.get(0).getBooking().getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(response.get(1).getError(), equalTo("Вещь уже забронирована на указанный период."));
+        assertThat(response.get(2).getError(),
+                equalTo("Статус бронирования вещи может менять только ее владелец."));
+        assertThat(response.get(3).getError(), equalTo("Неверный ID бронирования."));
+        assertThat(em.find(Booking.class, first.getId()).getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(em.find(Booking.class, overlapping.getId()).getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(em.find(Item.class, item.getId()).getNextBooking(), equalTo(first.getId()));
+
+        response = bookingService.updateStatusBulk(owner.getId(), List.of(first.getId(), overlapping.getId()),
+                "false");
+
+        assertThat(response.get(0).getError(), equalTo("Нельзя изменить статус уже завершенного бронирования."));
+        assertThat(response.get(1).getBooking().getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(em.find(Booking.class, overlapping.getId()).getStatus(), equalTo(BookingStatus.REJECTED));
+    }
+
+    private Booking waitingBooking(Item bookedItem, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(bookedItem);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+        em.persist(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.integrational;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.datasource.CurrentRequestUser;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+
+//two in-memory H2 databases stand in for a primary and a replica that is not replicated to
+@SpringBootTest(
+        properties = {
+            "db.name=test",
+            "shareit.datasource.replicas=" + ReplicaRoutingTest.REPLICA_URL,
+            "shareit.datasource.read-your-writes=PT1M"
+        },
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;" +
+            "INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "test", "test"));
+
+    @AfterEach
+    void tearDown() {
+        CurrentRequestUser.clear();
+        replica.update("DELETE FROM users");
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        replica.update("INSERT INTO users (user_name, email) VALUES ('replica', 'replica@email.com')");
+
+        userService.create(user("primary"));
+
+        assertThat(names(userService.getAll()), contains("replica"));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_name = 'primary'",
+                Integer.class), equalTo(1));
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM users WHERE user_name = 'primary'",
+                Integer.class), equalTo(0));
+    }
+
+    @Test
+    void writerReadsFromPrimaryWithinWindow() {
+        Long ownerId = userService.create(user("owner")).getId();
+
+        CurrentRequestUser.set(ownerId);
+        itemService.create(ownerId, new ItemDto(null, "item", "description", true, null));
+
+        assertThat(names(userService.getAll()), hasItem("owner"));
+        CurrentRequestUser.set(ownerId + 1);
+        assertThat(names(userService.getAll()).contains("owner"), equalTo(false));
+    }
+
+    private static UserDto user(String name) {
+        UserDto userDto = new UserDto();
+        userDto.setName(name);
+        userDto.setEmail(name + "@email.com");
+        return userDto;
+    }
+
+    private static List<String> names(List<UserDto> users) {
+        return users.stream()
+                .map(UserDto::getName)
+                .collect(toList());
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.integrational;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.cache.SecondLevelCacheConfiguration;
+import ru.practicum.shareit.cache.SecondLevelCacheStats;
+import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.stats.dto.CacheRegionStatsDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SecondLevelCacheTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void userReadsHitCacheAndSeeUpdates() {
+        UserDto userDto = new UserDto();
+        userDto.setName("name");
+        userDto.setEmail("cached@email.com");
+        Long userId = userService.create(userDto).getId();
+        long hits = stats(SecondLevelCacheConfiguration.USERS).getHits();
+
+        userService.getById(userId);
+        userService.getById(userId);
+
+        assertThat(stats(SecondLevelCacheConfiguration.USERS).getHits(), greaterThan(hits));
+
+        UserDto update = new UserDto();
+        update.setName("updated");
+        userService.update(userId, update);
+
+        assertThat(userService.getById(userId).getName(), equalTo("updated"));
+
+        userService.deleteById(userId);
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+                .isThrownBy(() -> userService.getById(userId));
+    }
+
+    @Test
+    void itemUpdatesAndOwnerQueryAreInvalidated() {
+        UserDto userDto = new UserDto();
+        userDto.setName("owner");
+        userDto.setEmail("owner-cached@email.com");
+        Long ownerId = userService.create(userDto).getId();
+        Long itemId = itemService.create(ownerId, new ItemDto(null, "item", "description", true, null)).getId();
+        itemRepository.findByOwnerOrderById(ownerId);
+        long queryHits = stats(SecondLevelCacheConfiguration.QUERY_RESULTS).getHits();
+
+        assertThat(itemRepository.findByOwnerOrderById(ownerId), hasSize(1));
+        assertThat(stats(SecondLevelCacheConfiguration.QUERY_RESULTS).getHits(), greaterThan(queryHits));
+
+        itemService.update(ownerId, itemId, new ItemDto(null, "renamed", null, null, null));
+        itemService.create(ownerId, new ItemDto(null, "second", "description", true, null));
+
+        assertThat(itemService.getById(ownerId, itemId).getName(), equalTo("renamed"));
+        assertThat(itemRepository.findByOwnerOrderById(ownerId), hasSize(2));
+    }
+
+    private CacheRegionStatsDto stats(String region) {
+        return secondLevelCacheStats.get().stream()
+                .filter(stats -> stats.getRegion().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+}
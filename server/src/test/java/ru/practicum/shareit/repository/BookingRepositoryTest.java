@@ -0,0 +1,281 @@
+package ru.practicum.shareit.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.repository.CapturedSql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingRepositoryTest {
+    @Autowired
+    private BookingRepository repository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private final List<User> bookers = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        userRepository.save(owner);
+        for (int i = 0; i < 20; i++) {
+            User booker = new User();
+            booker.setName("booker" + i);
+            booker.setEmail("booker" + i + "@email.com");
+            bookers.add(userRepository.save(booker));
+
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description");
+            item.setAvailable(true);
+            item.setOwner(owner.getId());
+            items.add(itemRepository.save(item));
+        }
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Booking booking = new Booking();
+            booking.setStart(start.plusDays(i));
+            booking.setEnd(start.plusDays(i).plusHours(12));
+            booking.setItem(items.get(i % items.size()));
+            booking.setBooker(bookers.get(i % bookers.size()));
+            booking.setStatus(statuses[i % statuses.length]);
+            bookings.add(booking);
+        }
+        repository.saveAll(bookings);
+        //plans are costed from table statistics, which H2 only gathers for committed rows
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findByBookerOrderByStartDescPageableTest() {
+        Long bookerId = bookers.get(0).getId();
+
+        List<BookingDtoResponse> firstPage = repository.findByBookerOrderByStartDescPageable(bookerId,
+                PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id")));
+        BookingDtoResponse last = firstPage.get(firstPage.size() - 1);
+        List<BookingDtoResponse> secondPage = repository.findByBookerOrderByStartDescPageable(bookerId, last.getStart(),
+                last.getId(), PageRequest.of(0, 10, Sort.by(DESC, "start", "id")));
+
+        assertThat(firstPage, hasSize(10));
+        assertThat(secondPage, hasSize(10));
+        assertThat(secondPage.get(0).getStart(), lessThan(last.getStart()));
+        assertThat(firstPage.get(0).getBooker().getId(), equalTo(bookerId));
+        assertThat(firstPage.get(0).getBooker().getName(), equalTo(bookers.get(0).getName()));
+        assertThat(firstPage.get(0).getItem().getName(), notNullValue());
+    }
+
+    @Test
+    void streamByBookerTest() {
+        Long bookerId = bookers.get(0).getId();
+
+        //streaming queries need an open transaction for the cursor
+        List<BookingDtoResponse> result = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<BookingDtoResponse> bookings = repository.streamByBooker(bookerId)) {
+                return bookings.collect(toList());
+            }
+        });
+
+        assertThat(result, hasSize(20));
+        assertThat(result.get(0).getStart(), greaterThan(result.get(19).getStart()));
+        assertThat(result.get(0).getBooker().getId(), equalTo(bookerId));
+    }
+
+    @Test
+    void streamByOwnerTest() {
+        Long count = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<BookingDtoResponse> bookings = repository.streamByOwner(items.get(0).getOwner())) {
+                return bookings.count();
+            }
+        });
+
+        assertThat(count, equalTo(400L));
+    }
+
+    @Test
+    void findCurrentPageableTest() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 21, 6, 0);
+
+        List<BookingDtoResponse> result = repository.findCurrentPageable(bookers.get(0).getId(), now,
+                PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id")));
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getStart(), equalTo(LocalDateTime.of(2030, 1, 21, 0, 0)));
+    }
+
+    @Test
+    void findCurrentPageableLongBookingTest() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 21, 6, 0);
+        Booking booking = new Booking();
+        booking.setStart(now.minusYears(2));
+        booking.setEnd(now.plusYears(1));
+        booking.setItem(items.get(1));
+        booking.setBooker(bookers.get(1));
+        booking.setStatus(BookingStatus.APPROVED);
+        repository.save(booking);
+
+        List<BookingDtoResponse> result = repository.findCurrentPageable(bookers.get(1).getId(), now,
+                PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id")));
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getId(), equalTo(booking.getId()));
+    }
+
+    @Test
+    void countByStateTest() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 21, 6, 0);
+
+        BookingSummaryDto booker = repository.countByStateForBooker(bookers.get(0).getId(), now,
+                BookingStatus.WAITING, BookingStatus.REJECTED);
+        BookingSummaryDto owner = repository.countByStateForOwner(items.get(0).getOwner(), now,
+                BookingStatus.WAITING, BookingStatus.REJECTED);
+        BookingSummaryDto nobody = repository.countByStateForBooker(-1L, now,
+                BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        assertThat(booker.getAll(), equalTo(20L));
+        assertThat(booker.getPast(), equalTo(1L));
+        assertThat(booker.getCurrent(), equalTo(1L));
+        assertThat(booker.getFuture(), equalTo(18L));
+        assertThat(owner.getAll(), equalTo(400L));
+        assertThat(owner.getPast(), equalTo(20L));
+        assertThat(owner.getCurrent(), equalTo(1L));
+        assertThat(owner.getWaiting() + owner.getRejected(), lessThan(400L));
+        assertThat(nobody.getAll(), equalTo(0L));
+        assertThat(nobody.getWaiting(), equalTo(0L));
+    }
+
+    @Test
+    void findByIdLoadsAssociationsTest() {
+        Long bookingId = repository.findAll().get(0).getId();
+
+        Booking booking = repository.findById(bookingId).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(booking.getItem()), is(true));
+        assertThat(Hibernate.isInitialized(booking.getBooker()), is(true));
+    }
+
+    @Test
+    void bookerPlanUsesIndexTest() {
+        String plan = explainCaptured(() -> repository.findByBookerOrderByStartDescPageable(bookers.get(0).getId(),
+                PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id"))));
+
+        assertThat(plan, containsString("IDX_BOOKINGS_BOOKER_START"));
+    }
+
+    @Test
+    void bookerStatusPlanUsesIndexTest() {
+        String plan = explainCaptured(() -> repository.findByBookerAndStatusOrderByStartDescPageable(
+                bookers.get(0).getId(), BookingStatus.WAITING, PageCursor.FIRST_PAGE.getTime(),
+                PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10, Sort.by(DESC, "start", "id"))));
+
+        assertThat(plan, containsString("IDX_BOOKINGS_BOOKER_STATUS_START"));
+    }
+
+    @Test
+    void itemStatusPlanUsesIndexTest() {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+        String overlapPlan = explainCaptured(() -> repository.existsOverlapping(items.get(0).getId(), -1L,
+                BookingStatus.APPROVED, start, start.plusDays(1)));
+        String intervalsPlan = explainCaptured(() -> repository.findIntervalsByItemIdInAndStatus(
+                List.of(items.get(0).getId()), BookingStatus.APPROVED, start, start.plusDays(1)));
+
+        assertThat(overlapPlan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+        assertThat(intervalsPlan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    @Test
+    void pointerPlanUsesIndexTest() {
+        LocalDateTime now = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+        String lastPlan = explainCaptured(() -> repository.findLastByItemIdAndStatus(items.get(0).getId(),
+                BookingStatus.APPROVED, now, PageRequest.of(0, 1)));
+        String nextPlan = explainCaptured(() -> repository.findNextByItemIdAndStatus(items.get(0).getId(),
+                BookingStatus.APPROVED, now, PageRequest.of(0, 1)));
+
+        assertThat(lastPlan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+        assertThat(nextPlan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    @Test
+    void ownerPlanUsesIndexTest() {
+        String plan = explainCaptured(() -> repository.findAllForItemsPageable(items.get(0).getOwner(),
+                PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id"))));
+
+        //all states: the owner's items come off an owner index and their bookings are looked up by item
+        assertThat(plan, containsString("ITEM_OWNER = ?1"));
+        assertThat(plan, containsString("ITEM = ITEM2_.ID"));
+        assertThat(plan, not(containsString("tableScan")));
+    }
+
+    @Test
+    void ownerStatusPlanUsesIndexTest() {
+        String plan = explainCaptured(() -> repository.findAllForItemsStatusPageable(items.get(0).getOwner(),
+                BookingStatus.WAITING, PageCursor.FIRST_PAGE.getTime(), PageCursor.FIRST_PAGE.getId(),
+                PageRequest.of(0, 10, Sort.by(DESC, "start", "id"))));
+
+        assertThat(plan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    private String explainCaptured(Runnable query) {
+        CapturedSql.clear();
+        query.run();
+        return explain(CapturedSql.last());
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
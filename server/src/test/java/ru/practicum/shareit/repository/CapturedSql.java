@@ -0,0 +1,29 @@
+package ru.practicum.shareit.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//collects the SQL hibernate sends, so tests can look at the plan of the statement a repository method runs
+public class CapturedSql implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+    public static String last() {
+        if (STATEMENTS.isEmpty()) {
+            throw new IllegalStateException("No statement was captured.");
+        }
+        return STATEMENTS.get(STATEMENTS.size() - 1);
+    }
+}
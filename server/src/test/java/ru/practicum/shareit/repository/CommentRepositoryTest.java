@@ -4,16 +4,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.data.domain.Sort.Direction.DESC;
@@ -28,38 +33,79 @@ public class CommentRepositoryTest {
     private UserRepository userRepository;
 
     @Test
-    void findByItemInTest() {
-        User user = new User();
-        user.setName("name");
-        user.setEmail("email@email.com");
-        em.persist(user);
+    void findLatestByItemInTest() {
+        User user = user("name", "email@email.com");
+        User author = user("newName", "newEmail@email.com");
+        Item item = item(user);
+        Item otherItem = item(user);
+        Item quietItem = item(user);
+        LocalDateTime now = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Comment oldest = comment(item, author, now.minusDays(2));
+        Comment middle = comment(item, author, now.minusDays(1));
+        Comment newest = comment(item, author, now);
+        Comment other = comment(otherItem, author, now);
+
+        List<CommentView> result = repository.findLatestByItemIn(List.of(item.getId(), otherItem.getId(),
+                quietItem.getId()), 2);
+
+        assertThat(result, hasSize(3));
+        assertThat(result.get(0).getId(), equalTo(newest.getId()));
+        assertThat(result.get(0).getText(), equalTo(newest.getText()));
+        assertThat(result.get(0).getItem(), equalTo(item.getId()));
+        assertThat(result.get(0).getAuthorName(), equalTo(author.getName()));
+        assertThat(result.get(0).getCreated(), equalTo(newest.getCreated()));
+        assertThat(result.get(0).getTotal(), equalTo(3L));
+        assertThat(result.get(1).getId(), equalTo(middle.getId()));
+        assertThat(result.get(2).getId(), equalTo(other.getId()));
+        assertThat(result.get(2).getTotal(), equalTo(1L));
+        assertThat(result.stream().noneMatch(comment -> comment.getId().equals(oldest.getId())), is(true));
+    }
+
+    @Test
+    void findByItemPageableTest() {
+        User user = user("name", "email@email.com");
+        User author = user("newName", "newEmail@email.com");
+        Item item = item(user);
+        LocalDateTime now = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Comment oldest = comment(item, author, now.minusDays(1));
+        Comment first = comment(item, author, now);
+        Comment second = comment(item, author, now);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(DESC, "created", "id"));
+
+        List<Comment> firstPage = repository.findByItemPageable(item.getId(), PageCursor.FIRST_PAGE.getTime(),
+                PageCursor.FIRST_PAGE.getId(), pageable);
+        List<Comment> secondPage = repository.findByItemPageable(item.getId(), second.getCreated(),
+                second.getId(), pageable);
 
-        User newUser = new User();
-        newUser.setName("newName");
-        newUser.setEmail("newEmail@email.com");
-        em.persist(newUser);
+        assertThat(firstPage.stream().map(Comment::getId).collect(toList()), contains(second.getId(),
+                first.getId()));
+        assertThat(firstPage.get(0).getAuthor().getName(), equalTo(author.getName()));
+        assertThat(secondPage.stream().map(Comment::getId).collect(toList()), contains(first.getId(),
+                oldest.getId()));
+    }
+
+    private User user(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return em.persist(user);
+    }
 
+    private Item item(User owner) {
         Item item = new Item();
         item.setName("name");
         item.setDescription("description");
         item.setAvailable(true);
-        item.setOwner(user.getId());
-        em.persist(item);
+        item.setOwner(owner.getId());
+        return em.persist(item);
+    }
 
+    private Comment comment(Item item, User author, LocalDateTime created) {
         Comment comment = new Comment();
-        comment.setText("text");
+        comment.setText("text " + created);
         comment.setItem(item.getId());
-        comment.setAuthor(newUser);
-        comment.setCreated(LocalDateTime.now());
-        em.persist(comment);
-
-        List<Comment> result = repository.findByItemIn(List.of(item.getId()), Sort.by(DESC, "created"));
-
-        assertThat(result, hasSize(1));
-        assertThat(result.get(0).getId(), notNullValue());
-        assertThat(result.get(0).getText(), equalTo(comment.getText()));
-        assertThat(result.get(0).getItem(), equalTo(comment.getItem()));
-        assertThat(result.get(0).getAuthor(), equalTo(comment.getAuthor()));
-        assertThat(result.get(0).getCreated(), equalTo(comment.getCreated()));
+        comment.setAuthor(author);
+        comment.setCreated(created);
+        return em.persist(comment);
     }
 }
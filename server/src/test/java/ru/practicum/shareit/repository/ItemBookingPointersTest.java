@@ -0,0 +1,106 @@
+package ru.practicum.shareit.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemLocks;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.item.ItemBookingPointers;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@DataJpaTest
+public class ItemBookingPointersTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    ItemBookingPointers pointers;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        pointers = new ItemBookingPointers(itemRepository, bookingRepository,
+                new ItemLocks(Mockito.mock(JdbcTemplate.class), Mockito.mock(DatabaseDialect.class)),
+                new TransactionTemplate(transactionManager));
+
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@email.com");
+        em.persist(owner);
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@email.com");
+        em.persist(booker);
+
+        item = new Item();
+        item.setName("name");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        em.persist(item);
+    }
+
+    @Test
+    void refreshTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = persistBooking(now.minusDays(3), BookingStatus.APPROVED);
+        persistBooking(now.minusDays(2), BookingStatus.REJECTED);
+        persistBooking(now.plusDays(1), BookingStatus.WAITING);
+        Booking next = persistBooking(now.plusDays(2), BookingStatus.APPROVED);
+        persistBooking(now.plusDays(3), BookingStatus.APPROVED);
+
+        pointers.refresh(item, now);
+
+        assertThat(item.getLastBooking(), equalTo(past.getId()));
+        assertThat(item.getNextBooking(), equalTo(next.getId()));
+        assertThat(item.getNextBookingStart(), equalTo(next.getStart()));
+    }
+
+    @Test
+    void sweepTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = persistBooking(now.minusHours(1), BookingStatus.APPROVED);
+        item.setNextBooking(started.getId());
+        item.setNextBookingStart(started.getStart());
+        em.flush();
+
+        pointers.sweep();
+
+        Item swept = em.find(Item.class, item.getId());
+        assertThat(swept.getLastBooking(), equalTo(started.getId()));
+        assertThat(swept.getNextBooking(), nullValue());
+        assertThat(swept.getNextBookingStart(), nullValue());
+    }
+
+    private Booking persistBooking(LocalDateTime start, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(12));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(status);
+        return em.persist(booking);
+    }
+}
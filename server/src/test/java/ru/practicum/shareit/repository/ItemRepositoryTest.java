@@ -9,12 +9,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.User;
 
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.springframework.data.domain.Sort.Direction.ASC;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @DataJpaTest
@@ -40,7 +42,7 @@ public class ItemRepositoryTest {
 
         Pageable pageable = PageRequest.of(0, 20, Sort.by(DESC, "id"));
 
-        List<Item> result = repository.findByOwnerOrderByIdPageable(user.getId(), pageable);
+        List<Item> result = repository.findByOwnerOrderByIdPageable(user.getId(), 0L, pageable);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getId(), notNullValue());
@@ -49,4 +51,100 @@ public class ItemRepositoryTest {
         assertThat(result.get(0).getAvailable(), equalTo(item.getAvailable()));
         assertThat(result.get(0).getOwner(), equalTo(item.getOwner()));
     }
+
+    @Test
+    void findByOwnerOrderByIdPageableAfterIdTest() {
+        User user = new User();
+        user.setName("name");
+        user.setEmail("email@email.com");
+        em.persist(user);
+
+        Item first = new Item();
+        first.setName("first");
+        first.setDescription("description");
+        first.setAvailable(true);
+        first.setOwner(user.getId());
+        em.persist(first);
+
+        Item second = new Item();
+        second.setName("second");
+        second.setDescription("description");
+        second.setAvailable(true);
+        second.setOwner(user.getId());
+        em.persist(second);
+
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(ASC, "id"));
+
+        List<Item> result = repository.findByOwnerOrderByIdPageable(user.getId(), first.getId(), pageable);
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getName(), equalTo(second.getName()));
+    }
+
+    @Test
+    void searchTest() {
+        User user = new User();
+        user.setName("name");
+        user.setEmail("email@email.com");
+        em.persist(user);
+
+        Item drill = new Item();
+        drill.setName("Дрель");
+        drill.setDescription("Простая дрель");
+        drill.setAvailable(true);
+        drill.setOwner(user.getId());
+        em.persist(drill);
+
+        Item hidden = new Item();
+        hidden.setName("Дрель");
+        hidden.setDescription("description");
+        hidden.setAvailable(false);
+        hidden.setOwner(user.getId());
+        em.persist(hidden);
+
+        Item screwdriver = new Item();
+        screwdriver.setName("Отвертка");
+        screwdriver.setDescription("Аккумуляторная ДРЕЛЬ-шуруповерт");
+        screwdriver.setAvailable(true);
+        screwdriver.setOwner(user.getId());
+        em.persist(screwdriver);
+
+        List<Item> result = repository.search("дрель", PageRequest.of(0, 20));
+
+        assertThat(result, hasSize(2));
+        assertThat(result.get(0).getId(), equalTo(drill.getId()));
+        assertThat(result.get(1).getId(), equalTo(screwdriver.getId()));
+        assertThat(repository.search("дрель", PageRequest.of(1, 1)).get(0).getId(), equalTo(screwdriver.getId()));
+    }
+
+    @Test
+    void searchWildcardsLiterallyTest() {
+        User user = new User();
+        user.setName("name");
+        user.setEmail("email@email.com");
+        em.persist(user);
+
+        Item drill = new Item();
+        drill.setName("Дрель");
+        drill.setDescription("Простая дрель");
+        drill.setAvailable(true);
+        drill.setOwner(user.getId());
+        em.persist(drill);
+
+        Item discounted = new Item();
+        discounted.setName("Пила_2");
+        discounted.setDescription("Скидка 50%");
+        discounted.setAvailable(true);
+        discounted.setOwner(user.getId());
+        em.persist(discounted);
+
+        List<Item> percent = repository.search(ItemSearchEngine.escapeLike("%"), PageRequest.of(0, 20));
+        List<Item> underscore = repository.search(ItemSearchEngine.escapeLike("_"), PageRequest.of(0, 20));
+
+        assertThat(percent, hasSize(1));
+        assertThat(percent.get(0).getId(), equalTo(discounted.getId()));
+        assertThat(underscore, hasSize(1));
+        assertThat(underscore.get(0).getId(), equalTo(discounted.getId()));
+        assertThat(repository.search(ItemSearchEngine.escapeLike("\\"), PageRequest.of(0, 20)), empty());
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
@@ -65,7 +66,8 @@ public class ItemRequestRepositoryTest {
 
         Pageable pageable = PageRequest.of(0, 20, Sort.by(DESC, "id"));
 
-        List<ItemRequest> result = repository.findAllPageable(10L, pageable);
+        List<ItemRequest> result = repository.findAllPageable(10L, PageCursor.FIRST_PAGE.getTime(),
+                PageCursor.FIRST_PAGE.getId(), pageable);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getId(), notNullValue());
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.item.search.SearchQuerySketch;
+import ru.practicum.shareit.item.search.SearchQueryStat;
+import ru.practicum.shareit.item.search.SearchQueryStatRepository;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+@DataJpaTest
+public class SearchQuerySketchFlushTest {
+    @Autowired
+    private SearchQueryStatRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private SearchQuerySketch sketch;
+
+    @BeforeEach
+    void setUp() {
+        sketch = new SearchQuerySketch(repository, jdbcTemplate, new DatabaseDialect(jdbcTemplate), 1024, 5, 2);
+    }
+
+    @Test
+    void flushMergesWithCountsOfOtherInstancesTest() {
+        //another instance has saved its leaders already
+        repository.saveAll(List.of(new SearchQueryStat("ДРЕЛЬ", 10L), new SearchQueryStat("ТЕНТ", 1L)));
+        repository.flush();
+        record("дрель", 4);
+        record("пила", 3);
+
+        sketch.flush();
+
+        assertThat(saved(), containsInAnyOrder("ДРЕЛЬ=14", "ПИЛА=3"));
+    }
+
+    private void record(String text, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.record(text);
+        }
+    }
+
+    private List<String> saved() {
+        return jdbcTemplate.queryForList("SELECT query_text, hits FROM search_queries").stream()
+                .map(row -> row.get("QUERY_TEXT") + "=" + row.get("HITS"))
+                .collect(toList());
+    }
+}
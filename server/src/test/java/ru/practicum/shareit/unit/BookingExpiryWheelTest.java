@@ -0,0 +1,112 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventRepository;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.event.BookingOutbox;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BookingExpiryWheelTest {
+
+    private BookingRepository mockBookingRepository;
+    private BookingEventRepository mockBookingEventRepository;
+    private BookingExpiryWheel wheel;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        mockBookingRepository = Mockito.mock(BookingRepository.class);
+        mockBookingEventRepository = Mockito.mock(BookingEventRepository.class);
+        wheel = new BookingExpiryWheel(mockBookingRepository, new BookingIntervalIndex(mockBookingRepository),
+                new BookingSummaryCache(Duration.ofMinutes(1), 100),
+                new BookingOutbox(mockBookingEventRepository, Mockito.mock(JdbcTemplate.class)),
+                new ItemLocks(Mockito.mock(JdbcTemplate.class), Mockito.mock(DatabaseDialect.class)),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), Duration.ofMillis(1), 8);
+        TransactionSynchronizationManager.initSynchronization();
+
+        User user = new User();
+        user.setId(1L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(2L);
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(item);
+        booking.setBooker(user);
+        booking.setStart(LocalDateTime.now().minusHours(1));
+        booking.setEnd(LocalDateTime.now().plusHours(1));
+        booking.setStatus(BookingStatus.WAITING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void advanceExpiresOnlyDueBookingsTest() throws Exception {
+        Mockito
+                .when(mockBookingRepository.findByIdInAndStatus(Mockito.anyList(), Mockito.any()))
+                .thenReturn(List.of(booking));
+        wheel.schedule(1L, 1L, booking.getStart());
+        wheel.schedule(2L, 1L, LocalDateTime.now().plusHours(1));
+
+        Thread.sleep(5);
+        wheel.advance();
+
+        Mockito.verify(mockBookingRepository)
+                .updateStatusByIdInAndStatus(List.of(1L), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        ArgumentCaptor<BookingEvent> event = ArgumentCaptor.forClass(BookingEvent.class);
+        Mockito.verify(mockBookingEventRepository).save(event.capture());
+        assertThat(event.getValue().getType(), equalTo(BookingEventType.EXPIRED));
+        assertThat(event.getValue().getStatus(), equalTo(BookingStatus.EXPIRED));
+        assertThat(wheel.pending(), equalTo(1));
+    }
+
+    @Test
+    void timerBeyondOneRotationWaitsForItsTickTest() throws Exception {
+        wheel.schedule(1L, 1L, LocalDateTime.now().plusSeconds(30));
+
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(3);
+            wheel.advance();
+        }
+
+        Mockito.verify(mockBookingRepository, Mockito.never())
+                .findByIdInAndStatus(Mockito.anyList(), Mockito.any());
+        assertThat(wheel.pending(), equalTo(1));
+    }
+
+    @Test
+    void rebuildTest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito
+                .when(mockBookingRepository.findIntervalsByStatus(BookingStatus.WAITING))
+                .thenReturn(List.of(new BookingInterval(1L, 1L, start, start.plusDays(1)),
+                        new BookingInterval(2L, 2L, start, start.plusDays(1))));
+
+        wheel.rebuild();
+
+        assertThat(wheel.pending(), equalTo(2));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingExporter;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.user.UserIdIndex;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BookingExporterTest {
+
+    private BookingRepository mockBookingRepository;
+    private UserRepository mockUserRepository;
+    private BookingExporter exporter;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @BeforeEach
+    void setUp() {
+        mockBookingRepository = Mockito.mock(BookingRepository.class);
+        mockUserRepository = Mockito.mock(UserRepository.class);
+        exporter = new BookingExporter(mockBookingRepository, new UserIdIndex(mockUserRepository), mapper,
+                Mockito.mock(PlatformTransactionManager.class));
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(true);
+    }
+
+    @Test
+    void exportForBookerTest() throws Exception {
+        Mockito
+                .when(mockBookingRepository.streamByBooker(1L))
+                .thenReturn(Stream.of(booking(2L), booking(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.exportForBooker(1L, false).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines, arrayWithSize(2));
+        assertThat(lines[0], equalTo(mapper.writeValueAsString(booking(2L))));
+        assertThat(lines[1], equalTo(mapper.writeValueAsString(booking(1L))));
+    }
+
+    @Test
+    void exportForOwnerGzipTest() throws Exception {
+        Mockito
+                .when(mockBookingRepository.streamByOwner(1L))
+                .thenReturn(Stream.of(booking(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.exportForOwner(1L, true).writeTo(out);
+
+        String content = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(content, equalTo(mapper.writeValueAsString(booking(1L)) + "\n"));
+    }
+
+    @Test
+    void exportUserNotFoundTest() {
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+                .isThrownBy(() -> exporter.exportForBooker(1L, false))
+                .withMessage("Неверный ID пользователя.");
+        Mockito.verifyNoInteractions(mockBookingRepository);
+    }
+
+    private BookingDtoResponse booking(Long id) {
+        return new BookingDtoResponse(id, LocalDateTime.of(2030, 1, id.intValue(), 10, 0),
+                LocalDateTime.of(2030, 1, id.intValue(), 12, 0), BookingStatus.APPROVED, 1L, "booker", 1L, "item");
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class BookingIntervalIndexTest {
+
+    private BookingRepository mockBookingRepository;
+    private BookingIntervalIndex index;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        mockBookingRepository = Mockito.mock(BookingRepository.class);
+        index = new BookingIntervalIndex(mockBookingRepository);
+        base = LocalDateTime.of(2030, 1, 1, 0, 0);
+    }
+
+    @Test
+    void hasOverlapTest() {
+        index.add(new BookingInterval(1L, 1L, base, base.plusDays(2)));
+        index.add(new BookingInterval(2L, 1L, base.plusDays(5), base.plusDays(6)));
+
+        assertThat(index.hasOverlap(1L, base.plusDays(1), base.plusDays(3)), is(true));
+        assertThat(index.hasOverlap(1L, base.minusDays(1), base.plusDays(10)), is(true));
+        assertThat(index.hasOverlap(1L, base.plusDays(2), base.plusDays(5)), is(false));
+        assertThat(index.hasOverlap(1L, base.plusDays(6), base.plusDays(7)), is(false));
+        assertThat(index.hasOverlap(2L, base, base.plusDays(2)), is(false));
+    }
+
+    @Test
+    void hasOverlapWithNestedIntervalsTest() {
+        index.add(new BookingInterval(1L, 1L, base, base.plusDays(30)));
+        index.add(new BookingInterval(2L, 1L, base.plusDays(1), base.plusDays(2)));
+
+        assertThat(index.hasOverlap(1L, base.plusDays(10), base.plusDays(11)), is(true));
+    }
+
+    @Test
+    void freeSlotsTest() {
+        index.add(new BookingInterval(1L, 1L, base, base.plusDays(30)));
+        index.add(new BookingInterval(2L, 1L, base.plusDays(1), base.plusDays(2)));
+        index.add(new BookingInterval(3L, 1L, base.plusDays(32), base.plusDays(33)));
+        index.add(new BookingInterval(4L, 1L, base.plusDays(33), base.plusDays(34)));
+
+        List<AvailabilitySlotDto> slots = index.freeSlots(1L, base.plusDays(10), base.plusDays(40));
+
+        assertThat(slots, hasSize(2));
+        assertThat(slots.get(0), equalTo(new AvailabilitySlotDto(base.plusDays(30), base.plusDays(32))));
+        assertThat(slots.get(1), equalTo(new AvailabilitySlotDto(base.plusDays(34), base.plusDays(40))));
+        assertThat(index.freeSlots(1L, base.plusDays(5), base.plusDays(6)), hasSize(0));
+        assertThat(index.freeSlots(2L, base, base.plusDays(1)),
+                equalTo(List.of(new AvailabilitySlotDto(base, base.plusDays(1)))));
+    }
+
+    @Test
+    void removeTest() {
+        index.add(new BookingInterval(1L, 1L, base, base.plusDays(2)));
+        index.remove(1L, 1L);
+
+        assertThat(index.hasOverlap(1L, base, base.plusDays(2)), is(false));
+    }
+
+    @Test
+    void warmUpTest() {
+        Mockito
+                .when(mockBookingRepository.findIntervalsByStatusInAndEndAfter(Mockito.anyList(), Mockito.any()))
+                .thenReturn(List.of(new BookingInterval(1L, 1L, base, base.plusDays(2))));
+
+        index.warmUp();
+
+        assertThat(index.hasOverlap(1L, base.plusDays(1), base.plusDays(3)), is(true));
+    }
+
+    @Test
+    void hasOverlapAfterLegacyOverlapIsPrunedTest() {
+        LocalDateTime now = LocalDateTime.now();
+        index.add(new BookingInterval(1L, 1L, now.minusDays(300), now.minusDays(1)));
+        index.add(new BookingInterval(2L, 1L, now.minusDays(2), now.plusDays(1)));
+        index.add(new BookingInterval(3L, 1L, now.plusDays(2), now.plusDays(3)));
+
+        index.prune();
+
+        assertThat(index.hasOverlap(1L, now.minusDays(200), now.minusDays(100)), is(false));
+        assertThat(index.hasOverlap(1L, now, now.plusHours(1)), is(true));
+        assertThat(index.hasOverlap(1L, now.plusDays(1), now.plusDays(2)), is(false));
+        assertThat(index.hasOverlap(1L, now.plusDays(1), now.plusDays(4)), is(true));
+    }
+
+    @Test
+    void pruneDropsFinishedBookingsTest() {
+        LocalDateTime now = LocalDateTime.now();
+        index.add(new BookingInterval(1L, 1L, now.minusDays(2), now.minusDays(1)));
+
+        index.prune();
+
+        assertThat(index.freeSlots(1L, now.minusDays(3), now),
+                equalTo(List.of(new AvailabilitySlotDto(now.minusDays(3), now))));
+    }
+
+    @Test
+    void addAfterCommitIgnoresRolledBackBookingTest() {
+        Item item = new Item();
+        item.setId(1L);
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(item);
+        booking.setStart(base);
+        booking.setEnd(base.plusDays(2));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.addAfterCommit(booking);
+            assertThat(index.hasOverlap(1L, base, base.plusDays(1)), is(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.hasOverlap(1L, base, base.plusDays(1)), is(false));
+        index.addAfterCommit(booking);
+        assertThat(index.hasOverlap(1L, base, base.plusDays(1)), is(true));
+    }
+}
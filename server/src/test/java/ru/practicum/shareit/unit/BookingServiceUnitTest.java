@@ -1,33 +1,54 @@
 package ru.practicum.shareit.unit;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingBulkResult;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.event.BookingEventRepository;
+import ru.practicum.shareit.booking.event.BookingOutbox;
+import ru.practicum.shareit.datasource.DatabaseDialect;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.item.ItemBookingPointers;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 
 public class BookingServiceUnitTest {
 
     private UserRepository mockUserRepository;
     private ItemRepository mockItemRepository;
     private BookingRepository mockBookingRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
+    private BookingJdbcRepository mockBookingJdbcRepository;
+    private BookingEventRepository mockBookingEventRepository;
     private BookingService service;
     private BookingDtoCreate bookingDtoCreate;
     User user;
@@ -39,7 +60,21 @@ public class BookingServiceUnitTest {
         mockUserRepository = Mockito.mock(UserRepository.class);
         mockItemRepository = Mockito.mock(ItemRepository.class);
         mockBookingRepository = Mockito.mock(BookingRepository.class);
-        service = new BookingService(mockUserRepository, mockItemRepository, mockBookingRepository);
+        bookingIntervalIndex = new BookingIntervalIndex(mockBookingRepository);
+        mockBookingJdbcRepository = Mockito.mock(BookingJdbcRepository.class);
+        mockBookingEventRepository = Mockito.mock(BookingEventRepository.class);
+        ItemLocks itemLocks = new ItemLocks(Mockito.mock(JdbcTemplate.class), Mockito.mock(DatabaseDialect.class));
+        service = new BookingService(mockUserRepository, mockItemRepository, mockBookingRepository,
+                bookingIntervalIndex, mockBookingJdbcRepository,
+                new ItemBookingPointers(mockItemRepository, mockBookingRepository, itemLocks,
+                        new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class))),
+                itemLocks, new BookingOutbox(mockBookingEventRepository, Mockito.mock(JdbcTemplate.class)),
+                new BookingSummaryCache(Duration.ofMinutes(1), 100), Mockito.mock(BookingExpiryWheel.class),
+                new UserIdIndex(mockUserRepository));
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
 
         bookingDtoCreate = new BookingDtoCreate(
                 1L,
@@ -69,6 +104,36 @@ public class BookingServiceUnitTest {
         booking.setStatus(BookingStatus.WAITING);
     }
 
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    void createFastPathTest() {
+        Mockito
+                .when(mockBookingJdbcRepository.insertIfBookable(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(),
+                        Mockito.any()))
+                .thenReturn(Optional.of(booking));
+
+        BookingDtoResponse response = service.create(user.getId(), bookingDtoCreate);
+
+        assertThat(response.getId(), equalTo(booking.getId()));
+        assertThat(response.getBooker().getName(), equalTo(user.getName()));
+        assertThat(response.getItem().getName(), equalTo(item.getName()));
+        Mockito.verify(mockUserRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(mockBookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     void createTest() {
         Mockito
@@ -93,6 +158,87 @@ public class BookingServiceUnitTest {
         assertThat(response.getItem().getName(), equalTo(item.getName()));
     }
 
+    @Test
+    void createOverlappingBookingTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findById(Mockito.any()))
+                .thenReturn(Optional.of(item));
+        bookingIntervalIndex.add(booking);
+
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> {
+                    BookingDtoResponse response = service.create(user.getId(), bookingDtoCreate);
+                }).withMessage("Вещь уже забронирована на указанный период.");
+    }
+
+    @Test
+    void createBatchTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(Mockito.any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .when(mockBookingJdbcRepository.insertAll(Mockito.any()))
+                .thenAnswer(invocation -> {
+                    List<Booking> bookings = invocation.getArgument(0);
+                    bookings.get(0).setId(5L);
+                    return bookings;
+                });
+        //entries of a batch may not start in the past
+        bookingDtoCreate.setStart(LocalDateTime.now().plusDays(1));
+        bookingDtoCreate.setEnd(bookingDtoCreate.getStart().plusDays(365));
+        BookingDtoCreate overlapping = new BookingDtoCreate(1L, bookingDtoCreate.getStart().plusDays(1),
+                bookingDtoCreate.getEnd().plusDays(1));
+        BookingDtoCreate unknownItem = new BookingDtoCreate(99L, bookingDtoCreate.getStart(),
+                bookingDtoCreate.getEnd());
+
+        List<BookingBatchResult> response = service.createBatch(user.getId(),
+                List.of(bookingDtoCreate, overlapping, unknownItem));
+
+        assertThat(response, hasSize(3));
+        assertThat(response.get(0).getBooking().getId(), equalTo(5L));
+        assertThat(response.get(0).getError(), nullValue());
+        assertThat(response.get(1).getBooking(), nullValue());
+        assertThat(response.get(1).getError(), equalTo("Вещь уже забронирована на указанный период."));
+        assertThat(response.get(2).getBooking(), nullValue());
+        assertThat(response.get(2).getError(), equalTo("Неверный ID вещи."));
+        commit();
+        assertThat(bookingIntervalIndex.hasOverlap(item.getId(), bookingDtoCreate.getStart(),
+                bookingDtoCreate.getEnd()), equalTo(true));
+    }
+
+    @Test
+    void createBatchRejectsPastAndReversedDatesTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(Mockito.any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .when(mockBookingJdbcRepository.insertAll(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime now = LocalDateTime.now();
+        BookingDtoCreate past = new BookingDtoCreate(1L, now.minusDays(2), now.minusDays(1));
+        BookingDtoCreate startedYesterday = new BookingDtoCreate(1L, now.minusDays(1), now.plusDays(1));
+        BookingDtoCreate reversed = new BookingDtoCreate(1L, now.plusDays(3), now.plusDays(2));
+
+        List<BookingBatchResult> response = service.createBatch(user.getId(),
+                List.of(past, startedYesterday, reversed));
+
+        assertThat(response.get(0).getError(), equalTo("Время начала бронирования не может быть в прошлом."));
+        assertThat(response.get(1).getError(), equalTo("Время начала бронирования не может быть в прошлом."));
+        assertThat(response.get(2).getError(), equalTo("Неверно введены данные времени начала и/или окончания."));
+        for (BookingBatchResult result: response) {
+            assertThat(result.getBooking(), nullValue());
+        }
+    }
+
     @Test
     void createUserNotFoundTest() {
         Mockito
@@ -178,6 +324,9 @@ public class BookingServiceUnitTest {
         Mockito
                 .when(mockBookingRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(booking));
+        Mockito
+                .when(mockBookingRepository.findStatusById(Mockito.anyLong()))
+                .thenReturn(BookingStatus.WAITING);
 
         BookingDtoResponse response = service.updateStatus(user.getId(), booking.getId(), "true");
 
@@ -200,6 +349,9 @@ public class BookingServiceUnitTest {
         Mockito
                 .when(mockBookingRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(booking));
+        Mockito
+                .when(mockBookingRepository.findStatusById(Mockito.anyLong()))
+                .thenReturn(BookingStatus.WAITING);
 
         BookingDtoResponse response = service.updateStatus(user.getId(), booking.getId(), "false");
 
@@ -214,10 +366,133 @@ public class BookingServiceUnitTest {
     }
 
     @Test
-    void updateStatusUserNotFoundTest() {
+    void updateStatusToApprovedOverlappingTest() {
+        item.setOwner(1L);
         Mockito
                 .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockBookingRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(booking));
+        Mockito
+                .when(mockBookingRepository.findStatusById(Mockito.anyLong()))
+                .thenReturn(BookingStatus.WAITING);
+        Mockito
+                .when(mockBookingRepository.existsOverlapping(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(),
+                        Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> {
+                    BookingDtoResponse response = service.updateStatus(user.getId(), booking.getId(), "true");
+                }).withMessage("Вещь уже забронирована на указанный период.");
+    }
+
+    @Test
+    void updateStatusDecidedConcurrentlyTest() {
+        item.setOwner(1L);
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockBookingRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(booking));
+        Mockito
+                .when(mockBookingRepository.findStatusById(Mockito.anyLong()))
+                .thenReturn(BookingStatus.APPROVED);
+
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> {
+                    BookingDtoResponse response = service.updateStatus(user.getId(), booking.getId(), "false");
+                }).withMessage("Нельзя изменить статус уже завершенного бронирования.");
+    }
+
+    @Test
+    void updateStatusBulkTest() {
+        item.setOwner(1L);
+        Booking finished = new Booking();
+        finished.setId(3L);
+        finished.setStart(booking.getStart());
+        finished.setEnd(booking.getEnd());
+        finished.setItem(item);
+        finished.setBooker(user);
+        finished.setStatus(BookingStatus.REJECTED);
+        Mockito
+                .when(mockBookingRepository.findByIdIn(Mockito.anyCollection()))
+                .thenReturn(List.of(booking, finished));
+        Mockito
+                .when(mockBookingRepository.findIdsByIdInAndStatus(List.of(booking.getId()), BookingStatus.WAITING))
+                .thenReturn(List.of(booking.getId()));
+        Mockito
+                .when(mockBookingRepository.findIntervalsByItemIdInAndStatus(Mockito.anyList(), Mockito.any(),
+                        Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+
+        List<BookingBulkResult> response = service.updateStatusBulk(user.getId(), List.of(2L, 3L, 4L), "true");
+
+        assertThat(response, hasSize(3));
+        assertThat(response.get(0).getBooking().getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(response.get(1).getError(), equalTo("Нельзя изменить статус уже завершенного бронирования."));
+        assertThat(response.get(2).getError(), equalTo("Неверный ID бронирования."));
+        Mockito.verify(mockBookingRepository)
+                .updateStatusByIdInAndStatus(List.of(booking.getId()), BookingStatus.WAITING, BookingStatus.APPROVED);
+        Mockito.verify(mockBookingRepository, Mockito.never()).findById(Mockito.anyLong());
+    }
+
+    @Test
+    void updateStatusBulkNullIdTest() {
+        List<BookingBulkResult> response = service.updateStatusBulk(user.getId(), Arrays.asList(null, 4L), "true");
+
+        assertThat(response, hasSize(2));
+        assertThat(response.get(0).getBookingId(), nullValue());
+        assertThat(response.get(0).getError(), equalTo("Не указан ID бронирования."));
+        assertThat(response.get(1).getError(), equalTo("Неверный ID бронирования."));
+        Mockito.verify(mockBookingRepository).findByIdIn(Set.of(4L));
+    }
+
+    @Test
+    void updateStatusBulkWrongStatusTest() {
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> service.updateStatusBulk(user.getId(), List.of(2L), "text"))
+                .withMessage("Неверный статус бронирования.");
+    }
+
+    @Test
+    void getSummaryCachedUntilCreateTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findById(Mockito.any()))
+                .thenReturn(Optional.of(item));
+        Mockito
+                .when(mockBookingRepository.save(Mockito.any()))
+                .thenReturn(booking);
+        Mockito
+                .when(mockBookingRepository.countByStateForBooker(Mockito.anyLong(), Mockito.any(), Mockito.any(),
+                        Mockito.any()))
+                .thenReturn(new BookingSummaryDto(1L, 0L, 0L, 1L, 1L, 0L))
+                .thenReturn(new BookingSummaryDto(2L, 0L, 0L, 2L, 2L, 0L));
+
+        BookingSummaryDto first = service.getSummary(user.getId());
+        BookingSummaryDto cached = service.getSummary(user.getId());
+        service.create(user.getId(), new BookingDtoCreate(1L, LocalDateTime.now().plusYears(10),
+                LocalDateTime.now().plusYears(10).plusDays(1)));
+        commit();
+        BookingSummaryDto reloaded = service.getSummary(user.getId());
+
+        assertThat(first.getAll(), equalTo(1L));
+        assertThat(cached.getAll(), equalTo(1L));
+        assertThat(reloaded.getAll(), equalTo(2L));
+        Mockito.verify(mockBookingRepository, Mockito.times(2))
+                .countByStateForBooker(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void updateStatusUserNotFoundTest() {
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -312,8 +587,8 @@ public class BookingServiceUnitTest {
     @Test
     void getUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -357,10 +632,11 @@ public class BookingServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockBookingRepository.findByBookerOrderByStartDescPageable(Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findByBookerOrderByStartDescPageable(Mockito.anyLong(),
+                        Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.ALL, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.ALL, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -379,10 +655,11 @@ public class BookingServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockBookingRepository.findCurrentPageable(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findCurrentPageable(Mockito.anyLong(),
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.CURRENT, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.CURRENT, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -401,10 +678,11 @@ public class BookingServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockBookingRepository.findPastPageable(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findPastPageable(Mockito.anyLong(),
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.PAST, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.PAST, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -423,10 +701,11 @@ public class BookingServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockBookingRepository.findFuturePageable(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findFuturePageable(Mockito.anyLong(),
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.FUTURE, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.FUTURE, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -446,10 +725,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(Optional.of(user));
         Mockito
                 .when(mockBookingRepository.findByBookerAndStatusOrderByStartDescPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.WAITING, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.WAITING, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -469,10 +748,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(Optional.of(user));
         Mockito
                 .when(mockBookingRepository.findByBookerAndStatusOrderByStartDescPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAll(user.getId(), State.REJECTED, 0, 10);
+        List<BookingDtoResponse> response = service.getAll(user.getId(), State.REJECTED, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -488,12 +767,12 @@ public class BookingServiceUnitTest {
     @Test
     void getAllUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<BookingDtoResponse> response = service.getAll(user.getId(), State.REJECTED, 0, 10);
+                    List<BookingDtoResponse> response = service.getAll(user.getId(), State.REJECTED, 0, 10, null);
                 }).withMessage("Неверный ID пользователя.");
     }
 
@@ -506,10 +785,11 @@ public class BookingServiceUnitTest {
                 .when(mockItemRepository.findByOwnerOrderById(Mockito.anyLong()))
                 .thenReturn(List.of(item));
         Mockito
-                .when(mockBookingRepository.findAllForItemsPageable(Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findAllForItemsPageable(Mockito.anyLong(),
+                        Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.ALL, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.ALL, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -532,10 +812,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(List.of(item));
         Mockito
                 .when(mockBookingRepository.findAllForItemsCurrentPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.CURRENT, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.CURRENT, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -558,10 +838,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(List.of(item));
         Mockito
                 .when(mockBookingRepository.findAllForItemsPastPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.PAST, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.PAST, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -584,10 +864,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(List.of(item));
         Mockito
                 .when(mockBookingRepository.findAllForItemsFuturePageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.FUTURE, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.FUTURE, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -610,10 +890,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(List.of(item));
         Mockito
                 .when(mockBookingRepository.findAllForItemsStatusPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.WAITING, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.WAITING, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -636,10 +916,10 @@ public class BookingServiceUnitTest {
                 .thenReturn(List.of(item));
         Mockito
                 .when(mockBookingRepository.findAllForItemsStatusPageable(Mockito.anyLong(),
-                        Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(booking));
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(BookingMapper.mapBookingToBookingDtoResponse(booking)));
 
-        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10);
+        List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10, null);
 
         assertThat(response, hasSize(1));
         assertThat(response.get(0).getId(), equalTo(booking.getId()));
@@ -655,12 +935,13 @@ public class BookingServiceUnitTest {
     @Test
     void getAllForItemsUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10);
+                    List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10,
+                            null);
                 }).withMessage("Неверный ID пользователя.");
     }
 
@@ -675,7 +956,8 @@ public class BookingServiceUnitTest {
 
         assertThatExceptionOfType(EntityNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10);
+                    List<BookingDtoResponse> response = service.getAllForItems(user.getId(), State.REJECTED, 0, 10,
+                            null);
                 }).withMessage("У данного пользователя нет вещей.");
     }
 }
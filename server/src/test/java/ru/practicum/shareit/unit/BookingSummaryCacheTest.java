@@ -0,0 +1,71 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingSummaryCache;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BookingSummaryCacheTest {
+
+    private final BookingSummaryCache cache = new BookingSummaryCache(Duration.ofMinutes(1), 2);
+
+    @Test
+    void summaryLoadedBeforeInvalidationIsNotStoredTest() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getForBooker(1L, () -> {
+            loads.incrementAndGet();
+            //a booking of this user commits while the old counts are being read
+            cache.invalidate(1L, 2L);
+            return summary(1L);
+        });
+        BookingSummaryDto reloaded = cache.getForBooker(1L, () -> {
+            loads.incrementAndGet();
+            return summary(2L);
+        });
+
+        assertThat(reloaded.getAll(), equalTo(2L));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void invalidationOfAnotherUserDoesNotBlockStoringTest() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getForBooker(1L, () -> {
+            loads.incrementAndGet();
+            cache.invalidate(3L, 4L);
+            return summary(1L);
+        });
+        BookingSummaryDto cached = cache.getForBooker(1L, () -> {
+            loads.incrementAndGet();
+            return summary(2L);
+        });
+
+        assertThat(cached.getAll(), equalTo(1L));
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    void leastRecentlyUsedSummaryIsEvictedTest() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getForOwner(1L, () -> summary(loads.incrementAndGet()));
+        cache.getForOwner(2L, () -> summary(loads.incrementAndGet()));
+        cache.getForOwner(1L, () -> summary(loads.incrementAndGet()));
+        cache.getForOwner(3L, () -> summary(loads.incrementAndGet()));
+        cache.getForOwner(1L, () -> summary(loads.incrementAndGet()));
+        cache.getForOwner(2L, () -> summary(loads.incrementAndGet()));
+
+        assertThat(loads.get(), equalTo(4));
+    }
+
+    private static BookingSummaryDto summary(long all) {
+        return new BookingSummaryDto(all, 0L, 0L, all, all, 0L);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.event.FileBookingEventSink;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FileBookingEventSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sendAppendsOneLinePerEventTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Path file = dir.resolve("events.ndjson");
+        FileBookingEventSink sink = new FileBookingEventSink(file, mapper);
+
+        sink.send(List.of(event(1L, BookingEventType.CREATED)));
+        sink.send(List.of(event(2L, BookingEventType.APPROVED), event(3L, BookingEventType.REJECTED)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines, hasSize(3));
+        assertThat(mapper.readValue(lines.get(1), BookingEvent.class).getType(),
+                equalTo(BookingEventType.APPROVED));
+        assertThat(lines.get(0), containsString("\"created\":\"2030-01-01T10:00\""));
+    }
+
+    private BookingEvent event(Long id, BookingEventType type) {
+        BookingEvent event = new BookingEvent();
+        event.setId(id);
+        event.setBookingId(id);
+        event.setItemId(1L);
+        event.setOwnerId(1L);
+        event.setBookerId(2L);
+        event.setType(type);
+        event.setStatus(BookingStatus.WAITING);
+        event.setCreated(LocalDateTime.of(2030, 1, 1, 10, 0));
+        return event;
+    }
+}
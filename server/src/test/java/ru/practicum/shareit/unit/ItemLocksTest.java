@@ -0,0 +1,50 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.ItemLocks;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ItemLocksTest {
+
+    private static final int ROUNDS = 10_000;
+
+    private final ItemLocks itemLocks = new ItemLocks(Mockito.mock(JdbcTemplate.class),
+            Mockito.mock(DatabaseDialect.class));
+
+    @Test
+    void lockAllUntilCompletionDoesNotDeadlockOnCrossedStripesTest() throws Exception {
+        //items 5 and 263 fall on stripes 5 and 7, items 7 and 261 on stripes 7 and 5
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> first = executor.submit(() -> lockRepeatedly(List.of(5L, 263L)));
+        Future<?> second = executor.submit(() -> lockRepeatedly(List.of(7L, 261L)));
+
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    private void lockRepeatedly(List<Long> itemIds) {
+        for (int i = 0; i < ROUNDS; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                itemLocks.lockAllUntilCompletion(itemIds);
+            } finally {
+                List<TransactionSynchronization> synchronizations =
+                        TransactionSynchronizationManager.getSynchronizations();
+                TransactionSynchronizationManager.clearSynchronization();
+                synchronizations.forEach(synchronization ->
+                        synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            }
+        }
+    }
+}
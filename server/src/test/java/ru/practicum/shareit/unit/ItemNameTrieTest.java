@@ -0,0 +1,122 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameTrie;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class ItemNameTrieTest {
+
+    private ItemRepository mockItemRepository;
+    private ItemNameTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        mockItemRepository = Mockito.mock(ItemRepository.class);
+        trie = new ItemNameTrie(mockItemRepository, 3, 2, 100);
+        Mockito
+                .when(mockItemRepository.findPopularityEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemPopularityDto(1L, "Дрель", true, 2L),
+                        new ItemPopularityDto(2L, "Дрель ударная", true, 5L)))
+                .thenReturn(List.of(new ItemPopularityDto(3L, "Древесный уголь", true, 1L),
+                        new ItemPopularityDto(4L, "Дрезина", false, 9L)))
+                .thenReturn(List.of(new ItemPopularityDto(5L, "Пила", true, 0L)));
+        trie.rebuild();
+    }
+
+    @Test
+    void suggestByPopularityTest() {
+        assertThat(ids(trie.suggest("др", 10)), contains(2L, 1L, 3L));
+        assertThat(ids(trie.suggest("ДРЕЛ", 10)), contains(2L, 1L));
+        assertThat(ids(trie.suggest("дрель у", 10)), contains(2L));
+        assertThat(ids(trie.suggest("д", 1)), contains(2L));
+        assertThat(ids(trie.suggest("", 10)), contains(2L, 1L, 3L));
+        assertThat(ids(trie.suggest("дрезина", 10)), empty());
+        assertThat(ids(trie.suggest("молоток", 10)), empty());
+    }
+
+    @Test
+    void bookingsReorderSuggestionsTest() {
+        for (int i = 0; i < 4; i++) {
+            trie.onBookingEvent(created(1L, 10L + i));
+        }
+        trie.onBookingEvent(created(3L, 20L));
+
+        assertThat(ids(trie.suggest("др", 10)), contains(1L, 2L, 3L));
+        assertThat(ids(trie.suggest("древ", 10)), contains(3L));
+    }
+
+    @Test
+    void redeliveredBookingCountedOnceTest() {
+        for (int i = 0; i < 4; i++) {
+            trie.onBookingEvent(created(1L, 10L));
+        }
+
+        assertThat(ids(trie.suggest("др", 10)), contains(2L, 1L, 3L));
+    }
+
+    @Test
+    void refreshPicksUpItemsChangedElsewhereTest() {
+        Mockito
+                .when(mockItemRepository.findPopularityEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemPopularityDto(1L, "Перфоратор", true, 2L),
+                        new ItemPopularityDto(2L, "Дрель ударная", true, 5L)))
+                .thenReturn(List.of(new ItemPopularityDto(6L, "Дрель", true, 0L)));
+
+        trie.refresh();
+
+        assertThat(ids(trie.suggest("др", 10)), contains(2L, 6L));
+        assertThat(ids(trie.suggest("пе", 10)), contains(1L));
+        assertThat(ids(trie.suggest("пила", 10)), empty());
+    }
+
+    @Test
+    void putChangedItemTest() {
+        trie.putAfterCommit(item(4L, "Дрезина", true));
+        trie.putAfterCommit(item(2L, "Перфоратор", true));
+        trie.putAfterCommit(item(3L, "Древесный уголь", false));
+
+        assertThat(ids(trie.suggest("др", 10)), contains(4L, 1L));
+        assertThat(ids(trie.suggest("дрель", 10)), contains(1L));
+        assertThat(ids(trie.suggest("пе", 10)), contains(2L));
+        assertThat(ids(trie.suggest("", 10)), contains(4L, 2L, 1L));
+
+        trie.putAfterCommit(item(3L, "Древесный уголь", true));
+        assertThat(ids(trie.suggest("дре", 10)), contains(4L, 1L, 3L));
+    }
+
+    private static BookingEvent created(Long itemId, Long bookingId) {
+        BookingEvent event = new BookingEvent();
+        event.setBookingId(bookingId);
+        event.setItemId(itemId);
+        event.setType(BookingEventType.CREATED);
+        return event;
+    }
+
+    private static Item item(Long id, String name, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setAvailable(available);
+        return item;
+    }
+
+    private static List<Long> ids(List<ItemSuggestionDto> found) {
+        return found.stream()
+                .map(ItemSuggestionDto::getId)
+                .collect(toList());
+    }
+}
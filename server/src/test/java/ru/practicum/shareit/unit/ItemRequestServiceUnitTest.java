@@ -12,6 +12,7 @@ import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInc;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.persistence.EntityNotFoundException;
@@ -39,7 +40,11 @@ public class ItemRequestServiceUnitTest {
         mockRequestRepository = Mockito.mock(ItemRequestRepository.class);
         mockItemRepository = Mockito.mock(ItemRepository.class);
         mockUserRepository = Mockito.mock(UserRepository.class);
-        service = new ItemRequestService(mockUserRepository, mockRequestRepository, mockItemRepository);
+        service = new ItemRequestService(mockUserRepository, mockRequestRepository, mockItemRepository,
+                new UserIdIndex(mockUserRepository));
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(true);
 
         user = new User();
         user.setId(1L);
@@ -123,8 +128,8 @@ public class ItemRequestServiceUnitTest {
     @Test
     void getOwnUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -138,13 +143,13 @@ public class ItemRequestServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockRequestRepository.findAllPageable(Mockito.anyLong(), Mockito.any()))
+                .when(mockRequestRepository.findAllPageable(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(List.of(itemRequest));
         Mockito
                 .when(mockItemRepository.findByRequestInOrderByIdDesc(Mockito.anyList()))
                 .thenReturn(List.of(item));
 
-        List<ItemRequestDtoOut> result = service.getAll(user.getId(), 0, 10);
+        List<ItemRequestDtoOut> result = service.getAll(user.getId(), 0, 10, null);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getId(), equalTo(itemRequest.getId()));
@@ -162,12 +167,12 @@ public class ItemRequestServiceUnitTest {
     @Test
     void getAllUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<ItemRequestDtoOut> result = service.getAll(user.getId(), 0, 10);
+                    List<ItemRequestDtoOut> result = service.getAll(user.getId(), 0, 10, null);
                 }).withMessage("Неверный ID пользователя.");
     }
 
@@ -200,8 +205,8 @@ public class ItemRequestServiceUnitTest {
     @Test
     void getByIdUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
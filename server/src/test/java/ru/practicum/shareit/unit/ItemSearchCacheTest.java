@@ -0,0 +1,105 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.stats.dto.SearchStatsDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemSearchCacheTest {
+
+    private ItemSearchCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemSearchCache(2, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void getCachedPageTest() {
+        get("дрель", 0);
+        get("ДРЕЛЬ", 0);
+        get("дрель", 1);
+        get("дрель ", 0);
+
+        assertThat(loads.get(), equalTo(3));
+        SearchStatsDto stats = cache.getStats();
+        assertThat(stats.getHits(), equalTo(1L));
+        assertThat(stats.getMisses(), equalTo(3L));
+        assertThat(stats.getEvictions(), equalTo(1L));
+        assertThat(stats.getSize(), equalTo(2));
+    }
+
+    @Test
+    void invalidateMatchingQueriesOnlyTest() {
+        get("дрель", 0);
+        get("пила", 0);
+
+        cache.invalidateAfterCommit(null, item("Дрель ударная", "Мощная", true));
+        get("дрель", 0);
+        get("пила", 0);
+
+        assertThat(loads.get(), equalTo(3));
+    }
+
+    @Test
+    void invalidateWhenItemStopsMatchingTest() {
+        ItemDto before = new ItemDto(1L, "Лестница", "Алюминиевая", true, null);
+        get("лестница", 0);
+        get("тент", 0);
+
+        cache.invalidateAfterCommit(before, item("Стремянка", "Алюминиевая", true));
+        get("лестница", 0);
+        cache.invalidateAfterCommit(before, item("Лестница", "Алюминиевая", false));
+        get("тент", 0);
+
+        assertThat(loads.get(), equalTo(3));
+    }
+
+    @Test
+    void unavailableItemDoesNotInvalidateTest() {
+        get("дрель", 0);
+
+        cache.invalidateAfterCommit(null, item("Дрель", "Сломана", false));
+        get("дрель", 0);
+
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    void pageLoadedDuringChangeIsNotCachedTest() {
+        cache.get("дрель", PageRequest.of(0, 10), () -> {
+            cache.invalidateAfterCommit(null, item("Дрель", "Новая", true));
+            return List.of();
+        });
+        get("дрель", 0);
+
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    private void get(String text, int page) {
+        cache.get(text, PageRequest.of(page, 10), () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+    }
+
+    private static Item item(String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(1L);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
@@ -3,28 +3,47 @@ package ru.practicum.shareit.unit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.datasource.DatabaseDialect;
 import ru.practicum.shareit.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
 import ru.practicum.shareit.item.CommentRepository;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoInc;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemNameTrie;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemTermDictionary;
+import ru.practicum.shareit.item.search.SearchQuerySketch;
+import ru.practicum.shareit.item.search.SearchQueryStatRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -36,6 +55,7 @@ public class ItemServiceUnitTest {
     private UserRepository mockUserRepository;
     private BookingRepository mockBookingRepository;
     private CommentRepository mockCommentRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
     private ItemService service;
     User user;
     ItemDto itemDto;
@@ -51,7 +71,18 @@ public class ItemServiceUnitTest {
         mockUserRepository = Mockito.mock(UserRepository.class);
         mockBookingRepository = Mockito.mock(BookingRepository.class);
         mockCommentRepository = Mockito.mock(CommentRepository.class);
-        service = new ItemService(mockItemRepository, mockUserRepository, mockBookingRepository, mockCommentRepository);
+        bookingIntervalIndex = new BookingIntervalIndex(mockBookingRepository);
+        service = new ItemService(mockItemRepository, mockUserRepository, mockBookingRepository, mockCommentRepository,
+                bookingIntervalIndex, new UserIdIndex(mockUserRepository),
+                new DatabaseItemSearchEngine(mockItemRepository), new ItemNameTrie(mockItemRepository, 10, 100, 100),
+                new ItemTermDictionary(mockItemRepository, 2, 50, 100),
+                new ItemSearchCache(100, Duration.ofMinutes(5)),
+                new SearchQuerySketch(Mockito.mock(SearchQueryStatRepository.class),
+                        Mockito.mock(JdbcTemplate.class), Mockito.mock(DatabaseDialect.class), 64, 5, 10),
+                new ItemViewCache(1024 * 1024, Duration.ofMinutes(1)));
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(true);
 
         user = new User();
         user.setId(1L);
@@ -71,6 +102,8 @@ public class ItemServiceUnitTest {
         item.setAvailable(true);
         item.setOwner(1L);
         item.setRequest(1L);
+        item.setLastBooking(1L);
+        item.setNextBooking(2L);
 
         lastBooking = new Booking();
         lastBooking.setId(1L);
@@ -82,8 +115,8 @@ public class ItemServiceUnitTest {
 
         nextBooking = new Booking();
         nextBooking.setId(2L);
-        nextBooking.setStart(LocalDateTime.of(2024, 1, 1, 1, 1));
-        nextBooking.setEnd(LocalDateTime.of(2025, 1, 1, 1, 1));
+        nextBooking.setStart(LocalDateTime.now().plusDays(1));
+        nextBooking.setEnd(LocalDateTime.now().plusDays(2));
         nextBooking.setItem(item);
         nextBooking.setBooker(user);
         nextBooking.setStatus(BookingStatus.APPROVED);
@@ -118,8 +151,8 @@ public class ItemServiceUnitTest {
     @Test
     void createUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -133,16 +166,16 @@ public class ItemServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockItemRepository.findByOwnerOrderByIdPageable(Mockito.anyLong(), Mockito.any()))
+                .when(mockItemRepository.findByOwnerOrderByIdPageable(Mockito.anyLong(), Mockito.any(), Mockito.any()))
                 .thenReturn(List.of(item));
         Mockito
-                .when(mockBookingRepository.findByItemInAndStatus(Mockito.anyList(), Mockito.any(), Mockito.any()))
+                .when(mockBookingRepository.findAllById(Mockito.anyList()))
                 .thenReturn(List.of(nextBooking, lastBooking));
         Mockito
-                .when(mockCommentRepository.findByItemIn(Mockito.anyList(), Mockito.any()))
-                .thenReturn(List.of(comment));
+                .when(mockCommentRepository.findLatestByItemIn(Mockito.anyList(), Mockito.anyInt()))
+                .thenReturn(List.of(commentView(comment, 12L)));
 
-        List<ItemDtoResponse> responses = service.getAll(user.getId(), 0, 10);
+        List<ItemDtoResponse> responses = service.getAll(user.getId(), 0, 10, null);
 
         assertThat(responses, hasSize(1));
         assertThat(responses.get(0).getId(), equalTo(item.getId()));
@@ -164,17 +197,18 @@ public class ItemServiceUnitTest {
         assertThat(responses.get(0).getComments().get(0).getText(), equalTo(comment.getText()));
         assertThat(responses.get(0).getComments().get(0).getAuthorName(), equalTo(comment.getAuthor().getName()));
         assertThat(responses.get(0).getComments().get(0).getCreated(), equalTo(comment.getCreated()));
+        assertThat(responses.get(0).getCommentCount(), equalTo(12L));
     }
 
     @Test
     void getAllUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<ItemDtoResponse> responses = service.getAll(user.getId(), 0, 10);
+                    List<ItemDtoResponse> responses = service.getAll(user.getId(), 0, 10, null);
                 }).withMessage("Неверный ID пользователя.");
     }
 
@@ -187,10 +221,10 @@ public class ItemServiceUnitTest {
                 .when(mockItemRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(item));
         Mockito
-                .when(mockBookingRepository.findByItemInAndStatus(Mockito.anyList(), Mockito.any(), Mockito.any()))
+                .when(mockBookingRepository.findAllById(Mockito.anyList()))
                 .thenReturn(List.of(nextBooking, lastBooking));
         Mockito
-                .when(mockCommentRepository.findByItemIn(Mockito.anyList(), Mockito.any()))
+                .when(mockCommentRepository.findByItem(Mockito.anyLong()))
                 .thenReturn(List.of(comment));
 
         ItemDtoResponse response = service.getById(user.getId(), item.getId());
@@ -214,6 +248,12 @@ public class ItemServiceUnitTest {
         assertThat(response.getComments().get(0).getText(), equalTo(comment.getText()));
         assertThat(response.getComments().get(0).getAuthorName(), equalTo(comment.getAuthor().getName()));
         assertThat(response.getComments().get(0).getCreated(), equalTo(comment.getCreated()));
+        assertThat(response.getCommentCount(), equalTo(1L));
+        //the owner's view is built once and never goes through the view cache
+        Mockito.verify(mockItemRepository, Mockito.times(1)).findById(item.getId());
+        Mockito.verify(mockCommentRepository, Mockito.times(1)).findByItem(item.getId());
+        //the single item view keeps every comment, not only the latest ones of the listings
+        Mockito.verify(mockCommentRepository, Mockito.never()).findLatestByItemIn(Mockito.anyList(), Mockito.anyInt());
     }
 
     @Test
@@ -225,7 +265,7 @@ public class ItemServiceUnitTest {
                 .when(mockItemRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(item));
         Mockito
-                .when(mockBookingRepository.findByItemInAndStatus(Mockito.anyList(), Mockito.any(), Mockito.any()))
+                .when(mockBookingRepository.findAllById(Mockito.anyList()))
                 .thenReturn(List.of(nextBooking, lastBooking));
         Mockito
                 .when(mockCommentRepository.findByItem(Mockito.anyLong()))
@@ -247,10 +287,106 @@ public class ItemServiceUnitTest {
     }
 
     @Test
-    void getByIdUserNotFoundTest() {
+    void getByIdForOtherUserCachedUntilCommentTest() {
         Mockito
                 .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(item));
+        Mockito
+                .when(mockCommentRepository.findByItem(Mockito.anyLong()))
+                .thenReturn(List.of(comment));
+        Mockito
+                .when(mockBookingRepository.findByItemAndValidBooker(Mockito.anyLong(), Mockito.anyLong(),
+                        Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(lastBooking));
+        Mockito
+                .when(mockCommentRepository.save(Mockito.any()))
+                .thenReturn(comment);
+
+        service.getById(2L, item.getId());
+        ItemDtoResponse cached = service.getById(3L, item.getId());
+        service.post(2L, item.getId(), new CommentDtoInc("text"));
+        service.getById(2L, item.getId());
+
+        assertThat(cached.getComments(), hasSize(1));
+        Mockito.verify(mockCommentRepository, Mockito.times(2)).findByItem(item.getId());
+    }
+
+    @Test
+    void getByIdForOtherUserUpdatedBeforeLoadTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockCommentRepository.findByItem(Mockito.anyLong()))
+                .thenReturn(List.of());
+        AtomicInteger reads = new AtomicInteger();
+        Mockito
+                .when(mockItemRepository.findById(Mockito.anyLong()))
+                .thenAnswer(invocation -> {
+                    if (reads.incrementAndGet() > 1) {
+                        return Optional.of(item);
+                    }
+                    Item before = new Item();
+                    before.setId(item.getId());
+                    before.setName(item.getName());
+                    before.setDescription(item.getDescription());
+                    before.setAvailable(item.getAvailable());
+                    before.setOwner(item.getOwner());
+                    //the owner renames the item after the viewer has read it but before the view is loaded
+                    ItemDto rename = new ItemDto();
+                    rename.setName("renamed");
+                    service.update(item.getOwner(), item.getId(), rename);
+                    return Optional.of(before);
+                });
+
+        ItemDtoResponse response = service.getById(2L, item.getId());
+        ItemDtoResponse cached = service.getById(3L, item.getId());
+
+        assertThat(response.getName(), equalTo("renamed"));
+        assertThat(cached.getName(), equalTo("renamed"));
+    }
+
+    @Test
+    void getAvailabilityTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.existsById(Mockito.anyLong()))
+                .thenReturn(true);
+        bookingIntervalIndex.add(nextBooking);
+        LocalDateTime from = nextBooking.getStart().minusDays(1);
+        LocalDateTime to = nextBooking.getEnd().plusDays(1);
+
+        List<AvailabilitySlotDto> slots = service.getAvailability(user.getId(), item.getId(), from, to);
+
+        assertThat(slots, hasSize(2));
+        assertThat(slots.get(0).getEnd(), equalTo(nextBooking.getStart()));
+        assertThat(slots.get(1).getStart(), equalTo(nextBooking.getEnd()));
+    }
+
+    @Test
+    void getAvailabilityWrongPeriodTest() {
+        Mockito
+                .when(mockUserRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(user));
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> {
+                    List<AvailabilitySlotDto> slots = service.getAvailability(user.getId(), item.getId(), from,
+                            from);
+                }).withMessage("Неверно введены данные времени начала и/или окончания.");
+    }
+
+    @Test
+    void getByIdUserNotFoundTest() {
+        Mockito
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -293,8 +429,8 @@ public class ItemServiceUnitTest {
     @Test
     void updateUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
@@ -339,15 +475,10 @@ public class ItemServiceUnitTest {
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(user));
         Mockito
-                .when(mockItemRepository
-                        .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailable(
-                                Mockito.anyString(),
-                                Mockito.anyString(),
-                                Mockito.any(),
-                                Mockito.any()))
+                .when(mockItemRepository.search(Mockito.anyString(), Mockito.any()))
                 .thenReturn(List.of(item));
 
-        List<ItemDto> result = service.search(user.getId(), "text", 0, 10);
+        List<ItemDto> result = service.search(user.getId(), "text", 0, 10, null, false);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getId(), equalTo(item.getId()));
@@ -356,18 +487,79 @@ public class ItemServiceUnitTest {
         assertThat(result.get(0).getRequestId(), equalTo(item.getRequest()));
     }
 
+    @Test
+    void searchAfterCursorTest() {
+        Mockito
+                .when(mockItemRepository.search(Mockito.anyString(), Mockito.any()))
+                .thenReturn(List.of(item));
+
+        service.search(user.getId(), "text", 0, 10, PageCursor.encode(20L), false);
+
+        Mockito.verify(mockItemRepository).search("text", PageRequest.of(2, 10));
+    }
+
+    @Test
+    void searchCachedUntilMatchingItemChangesTest() {
+        Mockito
+                .when(mockItemRepository.search(Mockito.anyString(), Mockito.any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .when(mockItemRepository.findById(item.getId()))
+                .thenReturn(Optional.of(item));
+
+        service.search(user.getId(), "NAME", 0, 10, null, false);
+        service.search(user.getId(), "name", 0, 10, null, false);
+        itemDto.setName("other");
+        itemDto.setDescription("other");
+        service.update(user.getId(), item.getId(), itemDto);
+        service.search(user.getId(), "name", 0, 10, null, false);
+
+        Mockito.verify(mockItemRepository, Mockito.times(2)).search(Mockito.anyString(), Mockito.any());
+    }
+
     @Test
     void searchUserNotFoundTest() {
         Mockito
-                .when(mockUserRepository.findById(Mockito.anyLong()))
-                .thenReturn(Optional.empty());
+                .when(mockUserRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
 
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> {
-                    List<ItemDto> response = service.search(user.getId(), "text", 0, 10);
+                    List<ItemDto> response = service.search(user.getId(), "text", 0, 10, null, false);
                 }).withMessage("Неверный ID пользователя.");
     }
 
+    @Test
+    void getCommentsAfterCursorTest() {
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Mockito
+                .when(mockItemRepository.existsById(item.getId()))
+                .thenReturn(true);
+        Mockito
+                .when(mockCommentRepository.findByItemPageable(Mockito.anyLong(), Mockito.any(), Mockito.anyLong(),
+                        Mockito.any()))
+                .thenReturn(List.of(comment));
+
+        List<CommentDto> result = service.getComments(user.getId(), item.getId(), 0, 10,
+                PageCursor.encode(created, 5L));
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getAuthorName(), equalTo(user.getName()));
+        Mockito.verify(mockCommentRepository).findByItemPageable(Mockito.eq(item.getId()), Mockito.eq(created),
+                Mockito.eq(5L), Mockito.any());
+    }
+
+    @Test
+    void getCommentsItemNotFoundTest() {
+        Mockito
+                .when(mockItemRepository.existsById(Mockito.anyLong()))
+                .thenReturn(false);
+
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.getComments(user.getId(), 99L, 0, 10, null))
+                .withMessage("Неверный ID вещи.");
+    }
+
     @Test
     void postTest() {
         Mockito
@@ -437,4 +629,14 @@ public class ItemServiceUnitTest {
                     CommentDto result = service.post(user.getId(), item.getId(), commentDtoInc);
                 }).withMessage("Данный пользователь не может оставить комментарий.");
     }
+
+    private static CommentView commentView(Comment comment, Long total) {
+        return new SpelAwareProxyProjectionFactory().createProjection(CommentView.class, Map.of(
+                "id", comment.getId(),
+                "text", comment.getText(),
+                "item", comment.getItem(),
+                "authorName", comment.getAuthor().getName(),
+                "created", comment.getCreated(),
+                "total", total));
+    }
 }
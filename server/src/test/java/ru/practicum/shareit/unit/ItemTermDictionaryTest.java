@@ -0,0 +1,117 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemTermDictionary;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemTermDictionaryTest {
+
+    private ItemTermDictionary dictionary;
+    private final Map<Long, Item> items = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
+        dictionary = new ItemTermDictionary(mockItemRepository, 2, 50, 2);
+        Mockito
+                .when(mockItemRepository.findAllById(Mockito.any()))
+                .thenAnswer(invocation -> {
+                    List<Item> found = new ArrayList<>();
+                    for (Long id: invocation.<Iterable<Long>>getArgument(0)) {
+                        found.add(items.get(id));
+                    }
+                    return found;
+                });
+        Mockito
+                .when(mockItemRepository.findSearchEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemDto(1L, "Дрель", "Простая дрель", true, null),
+                        new ItemDto(2L, "Отвертка", "Аккумуляторная дрель-шуруповерт", true, null)))
+                .thenReturn(List.of(new ItemDto(3L, "Дрель", "Сломана", false, null)));
+        item(1L, "Дрель", "Простая дрель", true);
+        item(2L, "Отвертка", "Аккумуляторная дрель-шуруповерт", true);
+        item(3L, "Дрель", "Сломана", false);
+        dictionary.rebuild();
+    }
+
+    @Test
+    void searchWithTyposTest() {
+        assertThat(ids(dictionary.search("дрел", PageRequest.of(0, 10))), contains(1L, 2L));
+        assertThat(ids(dictionary.search("атвертко", PageRequest.of(0, 10))), contains(2L));
+        assertThat(ids(dictionary.search("дрель шуруповерд", PageRequest.of(0, 10))), contains(2L));
+        assertThat(ids(dictionary.search("простая", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(dictionary.search("дрел", PageRequest.of(1, 1))), contains(2L));
+        assertThat(ids(dictionary.search("пила", PageRequest.of(0, 10))), empty());
+        assertThat(ids(dictionary.search("сломана", PageRequest.of(0, 10))), empty());
+        assertThat(ids(dictionary.search("дрн", PageRequest.of(0, 10))), empty());
+    }
+
+    @Test
+    void searchWithTwoTyposInShortWordTest() {
+        dictionary.indexAfterCommit(item(4L, "Drill", "Cordless", true));
+
+        assertThat(ids(dictionary.search("drel", PageRequest.of(0, 10))), contains(4L));
+        assertThat(ids(dictionary.search("дрен", PageRequest.of(0, 10))), contains(1L, 2L));
+    }
+
+    @Test
+    void exactMatchFirstTest() {
+        dictionary.indexAfterCommit(item(4L, "Дрела", "Самодельная", true));
+
+        assertThat(ids(dictionary.search("дрела", PageRequest.of(0, 10))), contains(4L, 1L, 2L));
+        assertThat(ids(dictionary.search("дрелл", PageRequest.of(0, 10))), contains(1L, 2L, 4L));
+    }
+
+    @Test
+    void indexUpdatedItemTest() {
+        dictionary.indexAfterCommit(item(1L, "Перфоратор", "Мощный", true));
+        dictionary.indexAfterCommit(item(2L, "Отвертка", "Аккумуляторная", false));
+        dictionary.indexAfterCommit(item(3L, "Дрель", "Починена", true));
+
+        assertThat(ids(dictionary.search("дрель", PageRequest.of(0, 10))), contains(3L));
+        assertThat(ids(dictionary.search("перфаратор", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(dictionary.search("отвертка", PageRequest.of(0, 10))), empty());
+    }
+
+    @Test
+    void removeWordsWithoutItemsTest() {
+        int size = dictionary.size();
+
+        dictionary.indexAfterCommit(item(4L, "Стремянка", "Алюминиевая", true));
+        dictionary.indexAfterCommit(item(4L, "Стремянка", "Алюминиевая", false));
+        dictionary.indexAfterCommit(item(1L, "Дрель", "Простая", true));
+
+        assertThat(dictionary.size(), equalTo(size));
+        assertThat(ids(dictionary.search("стремянка", PageRequest.of(0, 10))), empty());
+        assertThat(ids(dictionary.search("простая", PageRequest.of(0, 10))), contains(1L));
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setOwner(1L);
+        items.put(id, item);
+        return item;
+    }
+
+    private static List<Long> ids(List<Item> found) {
+        return found.stream()
+                .map(Item::getId)
+                .collect(toList());
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.stats.dto.ItemViewCacheStatsDto;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ItemViewCacheTest {
+
+    private ItemViewCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemViewCache(1000, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCachedViewTest() {
+        ItemViewCache.ItemView first = get(1L, Set.of());
+        ItemViewCache.ItemView second = get(1L, Set.of());
+
+        assertThat(second, sameInstance(first));
+        assertThat(loads.get(), equalTo(1));
+        ItemViewCacheStatsDto stats = cache.getStats();
+        assertThat(stats.getHits(), equalTo(1L));
+        assertThat(stats.getMisses(), equalTo(1L));
+        assertThat(stats.getHitPercentage(), equalTo(50f));
+    }
+
+    @Test
+    void cachedResponseIsCopiedForEachCallerTest() {
+        ItemDtoResponse changed = get(1L, Set.of()).getResponse();
+        changed.setName("changed");
+        changed.getComments().get(0).setText("changed");
+
+        ItemDtoResponse response = get(1L, Set.of()).getResponse();
+
+        assertThat(response, not(sameInstance(changed)));
+        assertThat(response.getName(), equalTo("name"));
+        assertThat(response.getComments().get(0).getText(), equalTo("text"));
+    }
+
+    @Test
+    void evictLeastRecentlyUsedBySizeTest() {
+        get(1L, Set.of());
+        get(2L, Set.of());
+        get(3L, Set.of());
+        get(1L, Set.of());
+        get(4L, Set.of());
+        get(1L, Set.of());
+        get(2L, Set.of());
+
+        ItemViewCacheStatsDto stats = cache.getStats();
+        assertThat(loads.get(), equalTo(5));
+        assertThat(stats.getEvictions(), equalTo(2L));
+        assertThat(stats.getSize(), equalTo(3));
+        assertThat(stats.getEstimatedBytes() <= 1000, equalTo(true));
+    }
+
+    @Test
+    void invalidateItemAndAuthorTest() {
+        get(1L, Set.of(10L));
+        get(2L, Set.of(20L));
+        get(3L, Set.of());
+
+        cache.invalidateAfterCommit(3L);
+        cache.invalidateAuthorAfterCommit(10L);
+        get(1L, Set.of(10L));
+        get(2L, Set.of(20L));
+        get(3L, Set.of());
+
+        assertThat(loads.get(), equalTo(5));
+        assertThat(cache.getStats().getInvalidations(), equalTo(2L));
+    }
+
+    @Test
+    void coalesceConcurrentLoadsTest() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ItemViewCache.ItemView> first = executor.submit(() -> cache.get(1L, () -> {
+                loading.countDown();
+                await(release);
+                return view(1L, Set.of());
+            }));
+            loading.await();
+            List<Future<ItemViewCache.ItemView>> waiting = List.of(
+                    executor.submit(() -> get(1L, Set.of())),
+                    executor.submit(() -> get(1L, Set.of())),
+                    executor.submit(() -> get(1L, Set.of())));
+            while (cache.getStats().getCoalesced() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<ItemViewCache.ItemView> future: waiting) {
+                assertThat(future.get(5, TimeUnit.SECONDS), sameInstance(first.get(5, TimeUnit.SECONDS)));
+            }
+            assertThat(loads.get(), equalTo(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadIsNotCachedTest() {
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> cache.get(1L, () -> {
+                    throw new EntityNotFoundException("Неверный ID вещи.");
+                }))
+                .withMessage("Неверный ID вещи.");
+        get(1L, Set.of());
+
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    private ItemViewCache.ItemView get(Long itemId, Set<Long> authorIds) {
+        return cache.get(itemId, () -> {
+            loads.incrementAndGet();
+            return view(itemId, authorIds);
+        });
+    }
+
+    //330 estimated bytes, so the cache fits three of them
+    private static ItemViewCache.ItemView view(Long itemId, Set<Long> authorIds) {
+        ItemDtoResponse response = new ItemDtoResponse(itemId, "name", "description", true, null, null,
+                List.of(new CommentDto(1L, "text", "author", null)), 1L);
+        return new ItemViewCache.ItemView(1L, response, authorIds);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
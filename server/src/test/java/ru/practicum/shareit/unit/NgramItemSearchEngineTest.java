@@ -0,0 +1,136 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.NgramItemSearchEngine;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class NgramItemSearchEngineTest {
+
+    private ItemRepository mockItemRepository;
+    private NgramItemSearchEngine engine;
+    private final Map<Long, Item> items = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        mockItemRepository = Mockito.mock(ItemRepository.class);
+        engine = new NgramItemSearchEngine(mockItemRepository, 2, 60_000);
+        Mockito
+                .when(mockItemRepository.findAllById(Mockito.any()))
+                .thenAnswer(invocation -> {
+                    List<Item> found = new ArrayList<>();
+                    for (Long id: invocation.<Iterable<Long>>getArgument(0)) {
+                        found.add(items.get(id));
+                    }
+                    return found;
+                });
+        Mockito
+                .when(mockItemRepository.findSearchEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemDto(1L, "Дрель", "Простая дрель", true, null),
+                        new ItemDto(2L, "Отвертка", "Аккумуляторная ДРЕЛЬ-шуруповерт", true, null)))
+                .thenReturn(List.of(new ItemDto(3L, "Дрель", "Сломана", false, null)))
+                .thenReturn(List.of());
+        item(1L, "Дрель", "Простая дрель", true);
+        item(2L, "Отвертка", "Аккумуляторная ДРЕЛЬ-шуруповерт", true);
+        item(3L, "Дрель", "Сломана", false);
+        engine.rebuild();
+    }
+
+    @Test
+    void searchSubstringTest() {
+        assertThat(ids(engine.search("дрель", PageRequest.of(0, 10))), contains(1L, 2L));
+        assertThat(ids(engine.search("ЛЬ-Ш", PageRequest.of(0, 10))), contains(2L));
+        assertThat(ids(engine.search("др", PageRequest.of(0, 10))), contains(1L, 2L));
+        assertThat(ids(engine.search("", PageRequest.of(0, 10))), contains(1L, 2L));
+        assertThat(ids(engine.search("пила", PageRequest.of(0, 10))), empty());
+        assertThat(ids(engine.search("дрель", PageRequest.of(1, 1))), contains(2L));
+    }
+
+    @Test
+    void indexUpdatedItemTest() {
+        Item drill = item(1L, "Перфоратор", "Мощный", true);
+        engine.indexAfterCommit(drill);
+        Item broken = item(3L, "Дрель", "Починена", true);
+        engine.indexAfterCommit(broken);
+        Item saw = item(4L, "Пила", "Ручная пила", true);
+        engine.indexAfterCommit(saw);
+
+        assertThat(ids(engine.search("дрель", PageRequest.of(0, 10))), contains(2L, 3L));
+        assertThat(ids(engine.search("перфо", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(engine.search("пила", PageRequest.of(0, 10))), contains(4L));
+    }
+
+    @Test
+    void compactAfterManyUpdatesTest() {
+        for (int i = 0; i < 10; i++) {
+            engine.indexAfterCommit(item(1L, "Дрель " + i, "Простая дрель", true));
+        }
+
+        assertThat(ids(engine.search("дрель 9", PageRequest.of(0, 10))), contains(1L));
+        assertThat(ids(engine.search("дрель 8", PageRequest.of(0, 10))), empty());
+        assertThat(ids(engine.search("дрель", PageRequest.of(0, 10))), contains(1L, 2L));
+        assertThat(ids(engine.search("дрель", PageRequest.of(0, 1))), contains(1L));
+    }
+
+    @Test
+    void catchUpSkipsItemsIndexedHereTest() {
+        engine.indexAfterCommit(item(4L, "Ножовка", "По дереву", true));
+        Mockito
+                .when(mockItemRepository.findSearchEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemDto(4L, "Пила", "По дереву", true, null)))
+                .thenReturn(List.of());
+
+        engine.catchUp();
+
+        assertThat(ids(engine.search("ножовка", PageRequest.of(0, 10))), contains(4L));
+        assertThat(ids(engine.search("пила", PageRequest.of(0, 10))), empty());
+    }
+
+    @Test
+    void catchUpLoadsItemsCommittedOutOfOrderTest() {
+        item(4L, "Пила", "Ручная пила", true);
+        item(5L, "Ножовка", "Ручная", true);
+        Mockito
+                .when(mockItemRepository.findSearchEntries(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(new ItemDto(5L, "Ножовка", "Ручная", true, null)))
+                .thenReturn(List.of());
+        Mockito
+                .when(mockItemRepository.findSearchEntriesByIdIn(List.of(4L)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new ItemDto(4L, "Пила", "Ручная пила", true, null)));
+
+        engine.catchUp();
+        engine.catchUp();
+        engine.catchUp();
+
+        assertThat(ids(engine.search("ручная", PageRequest.of(0, 10))), contains(4L, 5L));
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setOwner(1L);
+        items.put(id, item);
+        return item;
+    }
+
+    private static List<Long> ids(List<Item> found) {
+        return found.stream()
+                .map(Item::getId)
+                .collect(toList());
+    }
+}
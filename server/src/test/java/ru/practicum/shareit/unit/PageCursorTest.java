@@ -0,0 +1,53 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PageCursorTest {
+
+    @Test
+    void encodeDecodeTest() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 1, 1, 1);
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(time, 5L));
+
+        assertThat(cursor.getTime(), equalTo(time));
+        assertThat(cursor.getId(), equalTo(5L));
+        assertThat(PageCursor.decodeId(PageCursor.encode(7L)), equalTo(7L));
+    }
+
+    @Test
+    void decodeWithoutCursorTest() {
+        assertThat(PageCursor.decode(null), equalTo(PageCursor.FIRST_PAGE));
+        assertThat(PageCursor.decodeId(null), equalTo(0L));
+    }
+
+    @Test
+    void decodeInvalidCursorTest() {
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> PageCursor.decode(PageCursor.encode(7L)))
+                .withMessage("Неверный курсор страницы.");
+        assertThatExceptionOfType(ValidationException.class)
+                .isThrownBy(() -> PageCursor.decodeId("!!!"))
+                .withMessage("Неверный курсор страницы.");
+    }
+
+    @Test
+    void pageableTest() {
+        Pageable offset = PageCursor.pageable(null, 20, 10, Sort.by("id"));
+        Pageable keyset = PageCursor.pageable(PageCursor.encode(7L), 20, 10, Sort.by("id"));
+
+        assertThat(offset.getPageNumber(), equalTo(2));
+        assertThat(keyset.getPageNumber(), equalTo(0));
+        assertThat(keyset.getPageSize(), equalTo(10));
+    }
+}
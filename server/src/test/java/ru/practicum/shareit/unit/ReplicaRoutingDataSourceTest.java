@@ -0,0 +1,112 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.CurrentRequestUser;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource first;
+    private DataSource second;
+    private Connection primaryConnection;
+    private Connection firstConnection;
+    private Connection secondConnection;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = Mockito.mock(DataSource.class);
+        first = Mockito.mock(DataSource.class);
+        second = Mockito.mock(DataSource.class);
+        primaryConnection = Mockito.mock(Connection.class);
+        firstConnection = Mockito.mock(Connection.class);
+        secondConnection = Mockito.mock(Connection.class);
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(first.getConnection()).thenReturn(firstConnection);
+        Mockito.when(second.getConnection()).thenReturn(secondConnection);
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(first, second), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        CurrentRequestUser.clear();
+    }
+
+    @Test
+    void readOnlyRoundRobinTest() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection(), sameInstance(firstConnection));
+        assertThat(dataSource.getConnection(), sameInstance(secondConnection));
+        assertThat(dataSource.getConnection(), sameInstance(firstConnection));
+    }
+
+    @Test
+    void writesUsePrimaryTest() throws SQLException {
+        assertThat(dataSource.getConnection(), sameInstance(primaryConnection));
+    }
+
+    @Test
+    void failedReplicaIsSkippedUntilHealthyTest() throws SQLException {
+        Mockito.when(first.getConnection()).thenThrow(new SQLException("down"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection(), sameInstance(secondConnection));
+        assertThat(dataSource.getConnection(), sameInstance(secondConnection));
+
+        Mockito.reset(first);
+        Mockito.when(first.getConnection()).thenReturn(firstConnection);
+        Mockito.when(firstConnection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(secondConnection.isValid(Mockito.anyInt())).thenReturn(true);
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.getConnection(), sameInstance(firstConnection));
+    }
+
+    @Test
+    void allReplicasDownFallsBackToPrimaryTest() throws SQLException {
+        Mockito.when(first.getConnection()).thenThrow(new SQLException("down"));
+        Mockito.when(second.getConnection()).thenThrow(new SQLException("down"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection(), sameInstance(primaryConnection));
+    }
+
+    @Test
+    void onlyWritesPinUserToPrimaryTest() throws SQLException {
+        CurrentRequestUser.set(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(dataSource.getConnection(), sameInstance(primaryConnection));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertThat(dataSource.getConnection(), sameInstance(primaryConnection));
+            assertThat(TransactionSynchronizationManager.getSynchronizations(), empty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.datasource.DatabaseDialect;
+import ru.practicum.shareit.item.search.SearchQuerySketch;
+import ru.practicum.shareit.item.search.SearchQueryStat;
+import ru.practicum.shareit.item.search.SearchQueryStatRepository;
+import ru.practicum.shareit.stats.dto.QueryCountDto;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class SearchQuerySketchTest {
+
+    private SearchQueryStatRepository mockRepository;
+    private JdbcTemplate mockJdbcTemplate;
+    private SearchQuerySketch sketch;
+
+    @BeforeEach
+    void setUp() {
+        mockRepository = Mockito.mock(SearchQueryStatRepository.class);
+        mockJdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        sketch = new SearchQuerySketch(mockRepository, mockJdbcTemplate, Mockito.mock(DatabaseDialect.class),
+                1024, 3, 10);
+    }
+
+    @Test
+    void trackHeavyHittersTest() {
+        record("дрель", 50);
+        record("лестница", 30);
+        for (int i = 0; i < 200; i++) {
+            record("редкий запрос " + i, 1);
+        }
+        record("Палатка", 20);
+
+        assertThat(texts(sketch.getTop()), contains("ДРЕЛЬ", "ЛЕСТНИЦА", "ПАЛАТКА"));
+    }
+
+    @Test
+    void loadSavedQueriesTest() {
+        Mockito
+                .when(mockRepository.findAll())
+                .thenReturn(List.of(new SearchQueryStat("ТЕНТ", 40L), new SearchQueryStat("ДРЕЛЬ", 10L)));
+
+        sketch.load();
+        record("дрель", 35);
+
+        assertThat(texts(sketch.getTop()), contains("ДРЕЛЬ", "ТЕНТ"));
+    }
+
+    @Test
+    void flushSavesTopAndDecaysTest() {
+        record("дрель", 8);
+        record("тент", 1);
+
+        sketch.flush();
+
+        assertThat(flushed(1), contains("ДРЕЛЬ=8", "ТЕНТ=1"));
+        assertThat(sketch.getTop().stream().map(QueryCountDto::getEstimatedCount).collect(toList()), contains(4L));
+    }
+
+    @Test
+    void flushAddsOnlyNewSearchesTest() {
+        Mockito
+                .when(mockRepository.findAll())
+                .thenReturn(List.of(new SearchQueryStat("ТЕНТ", 40L)));
+        sketch.load();
+        record("дрель", 8);
+        sketch.flush();
+        record("дрель", 2);
+        record("тент", 3);
+
+        sketch.flush();
+
+        assertThat(flushed(2), contains("ДРЕЛЬ=8", "ДРЕЛЬ=2", "ТЕНТ=3"));
+    }
+
+    //every increment of the given number of flushes, as text=hits
+    @SuppressWarnings("unchecked")
+    private List<String> flushed(int flushes) {
+        ArgumentCaptor<List<Object[]>> increments = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(mockJdbcTemplate, Mockito.times(flushes)).batchUpdate(Mockito.anyString(), increments.capture());
+        return increments.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(increment -> increment[0] + "=" + increment[1])
+                .collect(toList());
+    }
+
+    private void record(String text, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.record(text);
+        }
+    }
+
+    private static List<String> texts(List<QueryCountDto> top) {
+        return top.stream()
+                .map(QueryCountDto::getText)
+                .collect(toList());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.user.LongHashSet;
+import ru.practicum.shareit.user.UserIdIndex;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class UserIdIndexTest {
+
+    private UserRepository mockUserRepository;
+    private UserIdIndex userIdIndex;
+
+    @BeforeEach
+    void setUp() {
+        mockUserRepository = Mockito.mock(UserRepository.class);
+        userIdIndex = new UserIdIndex(mockUserRepository);
+    }
+
+    @Test
+    void rebuildTest() {
+        Mockito
+                .when(mockUserRepository.findIdsAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(1L, 2L));
+
+        userIdIndex.rebuild();
+
+        assertThat(userIdIndex.contains(1L), equalTo(true));
+        assertThat(userIdIndex.contains(2L), equalTo(true));
+        Mockito.verify(mockUserRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+
+    @Test
+    void reconcileDropsUsersDeletedElsewhereTest() {
+        Mockito
+                .when(mockUserRepository.findIdsAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(1L));
+
+        userIdIndex.rebuild();
+        userIdIndex.reconcile();
+
+        assertThat(userIdIndex.contains(1L), equalTo(true));
+        assertThat(userIdIndex.contains(2L), equalTo(false));
+        Mockito.verify(mockUserRepository).existsById(2L);
+    }
+
+    @Test
+    void reconcileKeepsUsersDeletedDuringLoadOutTest() {
+        Mockito
+                .when(mockUserRepository.findIdsAfter(Mockito.anyLong(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    //the page was read before the delete of user 2 committed
+                    userIdIndex.remove(2L);
+                    return List.of(1L, 2L);
+                });
+
+        userIdIndex.reconcile();
+
+        assertThat(userIdIndex.contains(1L), equalTo(true));
+        assertThat(userIdIndex.contains(2L), equalTo(false));
+        Mockito.verify(mockUserRepository).existsById(2L);
+    }
+
+    @Test
+    void missFallsBackToRepositoryTest() {
+        Mockito
+                .when(mockUserRepository.existsById(1L))
+                .thenReturn(true);
+
+        assertThat(userIdIndex.contains(1L), equalTo(true));
+        assertThat(userIdIndex.contains(1L), equalTo(true));
+        assertThat(userIdIndex.contains(2L), equalTo(false));
+        Mockito.verify(mockUserRepository, Mockito.times(1)).existsById(1L);
+    }
+
+    @Test
+    void removeTest() {
+        userIdIndex.addAfterCommit(1L);
+
+        userIdIndex.remove(1L);
+
+        assertThat(userIdIndex.contains(1L), equalTo(false));
+        Mockito.verify(mockUserRepository).existsById(1L);
+    }
+
+    @Test
+    void longHashSetMatchesHashSetTest() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertThat(set.add(value), equalTo(expected.add(value)));
+            } else {
+                assertThat(set.remove(value), equalTo(expected.remove(value)));
+            }
+        }
+        assertThat(set.size(), equalTo(expected.size()));
+        for (long value = 0; value < 5_000; value++) {
+            assertThat(set.contains(value), equalTo(expected.contains(value)));
+        }
+    }
+}
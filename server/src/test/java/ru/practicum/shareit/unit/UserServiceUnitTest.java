@@ -4,12 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import ru.practicum.shareit.exceptions.UserNotFoundException;
+import ru.practicum.shareit.item.ItemViewCache;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,7 +31,8 @@ public class UserServiceUnitTest {
     @BeforeEach
     void setUp() {
         mockRepository = Mockito.mock(UserRepository.class);
-        userService = new UserService(mockRepository);
+        userService = new UserService(mockRepository, new UserIdIndex(mockRepository),
+                new ItemViewCache(1024, Duration.ofMinutes(1)));
 
         userDto = new UserDto();
         userDto.setName("name");